@@ -0,0 +1,123 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import com.google.common.base.Preconditions;
+import uk.co.drnaylor.quickstart.util.BackgroundQueue;
+
+import java.util.function.Supplier;
+
+/**
+ * A {@link LoggerProxy} that hands messages to a background appender thread, which then passes them on to another
+ * {@link LoggerProxy}. Messages that are supplied as a {@link Supplier} are also built on the appender thread.
+ *
+ * <p>
+ *     The queue is bounded. If it is full, the message is logged on the calling thread instead, so messages are never
+ *     dropped, but may be logged out of order while the queue is full.
+ * </p>
+ *
+ * <p>
+ *     {@link #close()} should be called when logging is finished, to flush any outstanding messages. Messages that
+ *     are logged while the proxy is closing are either flushed by it or logged on the calling thread, never lost.
+ * </p>
+ *
+ * <p>
+ *     If passing a message on fails, or building it from its {@link Supplier} does, the failure is logged as an
+ *     error through the wrapped {@link LoggerProxy}.
+ * </p>
+ */
+public final class AsyncLoggerProxy implements LoggerProxy, AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final LoggerProxy delegate;
+    private final BackgroundQueue appender;
+
+    /**
+     * Creates an {@link AsyncLoggerProxy} with the default queue capacity.
+     *
+     * @param delegate The {@link LoggerProxy} that messages will be passed on to.
+     */
+    public AsyncLoggerProxy(LoggerProxy delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an {@link AsyncLoggerProxy}.
+     *
+     * @param delegate The {@link LoggerProxy} that messages will be passed on to.
+     * @param capacity The number of messages that can be waiting to be logged.
+     */
+    public AsyncLoggerProxy(LoggerProxy delegate, int capacity) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.appender = new BackgroundQueue("QuickStart Log Appender", capacity, false,
+                e -> delegate.error("A message could not be logged: " + e));
+    }
+
+    @Override
+    public void info(String message) {
+        submit(() -> this.delegate.info(message));
+    }
+
+    @Override
+    public void warn(String message) {
+        submit(() -> this.delegate.warn(message));
+    }
+
+    @Override
+    public void error(String message) {
+        submit(() -> this.delegate.error(message));
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return this.delegate.isInfoEnabled();
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return this.delegate.isWarnEnabled();
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return this.delegate.isErrorEnabled();
+    }
+
+    @Override
+    public void info(Supplier<String> message) {
+        if (isInfoEnabled()) {
+            submit(() -> this.delegate.info(message.get()));
+        }
+    }
+
+    @Override
+    public void warn(Supplier<String> message) {
+        if (isWarnEnabled()) {
+            submit(() -> this.delegate.warn(message.get()));
+        }
+    }
+
+    @Override
+    public void error(Supplier<String> message) {
+        if (isErrorEnabled()) {
+            submit(() -> this.delegate.error(message.get()));
+        }
+    }
+
+    /**
+     * Stops the appender thread, once every message that is waiting has been logged. Messages logged after this call
+     * are logged on the calling thread.
+     */
+    @Override
+    public void close() {
+        this.appender.close();
+    }
+
+    private void submit(Runnable record) {
+        this.appender.submit(record);
+    }
+}
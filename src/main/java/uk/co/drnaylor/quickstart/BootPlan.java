@@ -0,0 +1,181 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import uk.co.drnaylor.quickstart.enums.LoadingStatus;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A resolved boot plan for a {@link ModuleHolder}: the modules in dependency order, their statuses, the modules that
+ * were disabled because of a disabled dependency, the enable phases that were run, and how long each module took to
+ * enable.
+ *
+ * <p>
+ *     A plan is exported from a holder that has loaded its modules using {@link ModuleHolder#getBootPlan()}, and can be
+ *     given to the next holder using {@link ModuleHolder.Builder#setBootPlan(BootPlan)}. That holder will then skip
+ *     classpath scanning and dependency resolution. The plan is checked against the classpath and the holder before it
+ *     is used, and is ignored if it does not match, but it cannot know about modules that have been <em>added</em>
+ *     since it was written. Plans should therefore be thrown away when the set of modules changes, for example, when
+ *     the application is upgraded.
+ * </p>
+ */
+public final class BootPlan {
+
+    private static final String HEADER = "quickstart-boot-plan 2";
+    private static final String HEADER_WITHOUT_TIMINGS = "quickstart-boot-plan 1";
+    private static final String SEPARATOR = "\t";
+
+    private final ImmutableMap<String, String> modules;
+    private final ImmutableMap<String, LoadingStatus> statuses;
+    private final ImmutableSet<String> cascade;
+    private final ImmutableList<String> phases;
+    private final ImmutableMap<String, Duration> timings;
+
+    BootPlan(Map<String, String> modules, Map<String, LoadingStatus> statuses, Set<String> cascade, List<String> phases,
+            Map<String, Duration> timings) {
+        this.modules = ImmutableMap.copyOf(modules);
+        this.statuses = ImmutableMap.copyOf(statuses);
+        this.cascade = ImmutableSet.copyOf(cascade);
+        this.phases = ImmutableList.copyOf(phases);
+        this.timings = ImmutableMap.copyOf(timings);
+    }
+
+    /**
+     * Gets the IDs of the modules, mapped to the names of their classes, in the order they should be loaded in.
+     *
+     * @return The modules.
+     */
+    public Map<String, String> getModules() {
+        return this.modules;
+    }
+
+    /**
+     * Gets the {@link LoadingStatus} of each module before modules with disabled dependencies were disabled.
+     *
+     * @return The statuses.
+     */
+    public Map<String, LoadingStatus> getStatuses() {
+        return this.statuses;
+    }
+
+    /**
+     * Gets the IDs of modules that were disabled because a dependency was disabled.
+     *
+     * @return The module IDs.
+     */
+    public Set<String> getCascade() {
+        return this.cascade;
+    }
+
+    /**
+     * Gets the enable phases that were run.
+     *
+     * @return The phases, in order.
+     */
+    public List<String> getPhases() {
+        return this.phases;
+    }
+
+    /**
+     * Gets how long each module took to run its enable phases.
+     *
+     * @return The module IDs, mapped to their timings.
+     */
+    public Map<String, Duration> getTimings() {
+        return this.timings;
+    }
+
+    /**
+     * Writes this plan to a file.
+     *
+     * @param file The file to write to.
+     * @throws IOException if the plan could not be written.
+     */
+    public void write(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            writer.write("phases" + SEPARATOR + String.join(SEPARATOR, this.phases));
+            writer.newLine();
+            for (Map.Entry<String, String> module : this.modules.entrySet()) {
+                writer.write(String.join(SEPARATOR,
+                        "module",
+                        module.getKey(),
+                        module.getValue(),
+                        this.statuses.get(module.getKey()).name(),
+                        String.valueOf(this.cascade.contains(module.getKey()))));
+                writer.newLine();
+            }
+
+            for (Map.Entry<String, Duration> timing : this.timings.entrySet()) {
+                writer.write(String.join(SEPARATOR, "timing", timing.getKey(), String.valueOf(timing.getValue().toNanos())));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Reads a plan from a file that was created by {@link #write(Path)}.
+     *
+     * @param file The file to read from.
+     * @return The plan.
+     * @throws IOException if the plan could not be read, or is not a boot plan.
+     */
+    public static BootPlan read(Path file) throws IOException {
+        Map<String, String> modules = new LinkedHashMap<>();
+        Map<String, LoadingStatus> statuses = new LinkedHashMap<>();
+        ImmutableSet.Builder<String> cascade = ImmutableSet.builder();
+        List<String> phases = ImmutableList.of();
+        Map<String, Duration> timings = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (!HEADER.equals(header) && !HEADER_WITHOUT_TIMINGS.equals(header)) {
+                throw new IOException(file + " is not a boot plan, or was written by a different version.");
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(SEPARATOR, -1);
+                if (parts[0].equals("phases")) {
+                    phases = Arrays.stream(parts).skip(1).filter(x -> !x.isEmpty()).collect(Collectors.toList());
+                } else if (parts[0].equals("module") && parts.length == 5) {
+                    modules.put(parts[1], parts[2]);
+                    statuses.put(parts[1], LoadingStatus.valueOf(parts[3]));
+                    if (Boolean.parseBoolean(parts[4])) {
+                        cascade.add(parts[1]);
+                    }
+                } else if (parts[0].equals("timing") && parts.length == 3) {
+                    timings.put(parts[1], Duration.ofNanos(Long.parseLong(parts[2])));
+                } else if (!line.isEmpty()) {
+                    throw new IOException("Unexpected line in boot plan: " + line);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Could not read the boot plan " + file, e);
+        }
+
+        if (modules.isEmpty()) {
+            throw new IOException("The boot plan " + file + " contains no modules.");
+        }
+
+        return new BootPlan(modules, statuses, cascade.build(), phases, timings);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Writes class lists for, and detects the use of, JVM class data sharing (CDS) archives.
+ */
+final class ClassDataSharing {
+
+    private ClassDataSharing() {}
+
+    /**
+     * Writes the given classes, and their superclasses and interfaces, to a class list that can be given to the JVM
+     * using <code>-XX:SharedClassListFile</code>. Supertypes are written before the types that extend them.
+     *
+     * <p>
+     *     The JVM can only archive classes from the built-in class loaders using a plain class list, so classes from
+     *     any other class loader are left out.
+     * </p>
+     *
+     * @param file The file to write to.
+     * @param classes The classes to write.
+     * @return The number of classes that were written.
+     * @throws IOException if the file could not be written.
+     */
+    static int writeClassList(Path file, Collection<Class<?>> classes) throws IOException {
+        Set<Class<?>> ordered = new LinkedHashSet<>();
+        for (Class<?> c : classes) {
+            addWithSupertypes(c, ordered);
+        }
+
+        int written = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (Class<?> c : ordered) {
+                if (isFromBuiltInLoader(c)) {
+                    writer.write(c.getName().replace('.', '/'));
+                    writer.newLine();
+                    written++;
+                }
+            }
+        }
+
+        return written;
+    }
+
+    /**
+     * Gets whether the JVM has mapped an application class data sharing archive, as opposed to no archive, or only the
+     * default archive of JDK classes.
+     *
+     * @return <code>true</code> if so.
+     */
+    static boolean isArchiveInUse() {
+        try {
+            HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+            return bean != null
+                    && Boolean.parseBoolean(bean.getVMOption("UseSharedSpaces").getValue())
+                    && !bean.getVMOption("SharedArchiveFile").getValue().isEmpty();
+        } catch (RuntimeException | LinkageError e) {
+            // Not a HotSpot JVM, or the options do not exist on this version.
+            return false;
+        }
+    }
+
+    private static void addWithSupertypes(Class<?> c, Set<Class<?>> ordered) {
+        if (c.isArray() || c.isPrimitive() || ordered.contains(c)) {
+            return;
+        }
+
+        if (c.getSuperclass() != null) {
+            addWithSupertypes(c.getSuperclass(), ordered);
+        }
+
+        for (Class<?> i : c.getInterfaces()) {
+            addWithSupertypes(i, ordered);
+        }
+
+        ordered.add(c);
+    }
+
+    private static boolean isFromBuiltInLoader(Class<?> c) {
+        if (c.isSynthetic()) {
+            // Generated classes, such as lambdas, cannot be listed by name.
+            return false;
+        }
+
+        ClassLoader classLoader = c.getClassLoader();
+        if (classLoader == null) {
+            return true;
+        }
+
+        for (ClassLoader builtIn = ClassLoader.getSystemClassLoader(); builtIn != null; builtIn = builtIn.getParent()) {
+            if (builtIn == classLoader) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -4,26 +4,44 @@
  */
 package uk.co.drnaylor.quickstart;
 
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public class DefaultLogger implements LoggerProxy {
 
     public final static DefaultLogger INSTANCE = new DefaultLogger();
 
+    private final Logger logger = Logger.getLogger("QuickStart");
+
     private DefaultLogger() {}
 
     @Override
     public void info(String message) {
-        Logger.getLogger("QuickStart").info(message);
+        this.logger.info(message);
     }
 
     @Override
     public void warn(String message) {
-        Logger.getLogger("QuickStart").warning(message);
+        this.logger.warning(message);
     }
 
     @Override
     public void error(String message) {
-        Logger.getLogger("QuickStart").severe(message);
+        this.logger.severe(message);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return this.logger.isLoggable(Level.INFO);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return this.logger.isLoggable(Level.WARNING);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return this.logger.isLoggable(Level.SEVERE);
     }
 }
@@ -0,0 +1,102 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Maps;
+import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleDiscoveryException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Puts modules into dependency order as they are discovered.
+ *
+ * <p>
+ *     Each module is placed at a depth one greater than the deepest of its dependencies and soft dependencies, as soon
+ *     as they have all been placed. Modules whose dependencies have not been discovered yet wait on them. Once every
+ *     module has been added, modules are ordered by depth, then with non-mandatory modules first, then by ID, which is
+ *     the order that resolving the whole set at once, one depth at a time, gives. Dependencies are matched to IDs
+ *     without regard to case.
+ * </p>
+ *
+ * @param <M> The type of module.
+ */
+final class DependencyOrder<M extends Module> {
+
+    private final Map<String, ModuleMetadata<? extends M>> modules = new HashMap<>();
+    private final Map<String, Integer> depths = new HashMap<>();
+    private final Map<String, List<String>> waiting = new HashMap<>();
+
+    /**
+     * Adds a discovered module, and places it and any modules that were waiting on it.
+     *
+     * @param id The lower case ID of the module.
+     * @param metadata The {@link ModuleMetadata} of the module.
+     * @throws QuickStartModuleDiscoveryException if a module with the same ID has already been added.
+     */
+    void add(String id, ModuleMetadata<? extends M> metadata) throws QuickStartModuleDiscoveryException {
+        if (this.modules.putIfAbsent(id, metadata) != null) {
+            throw new QuickStartModuleDiscoveryException("Duplicate module ID \"" + id + "\" was discovered - loading cannot continue.");
+        }
+
+        Deque<String> toPlace = new ArrayDeque<>();
+        toPlace.add(id);
+        while (!toPlace.isEmpty()) {
+            String next = toPlace.poll();
+            ModuleMetadata<? extends M> ms = this.modules.get(next);
+            int depth = 0;
+            String missing = null;
+            for (String dependency : Iterables.concat(ms.getDependencies(), ms.getSoftDependencies())) {
+                Integer dependencyDepth = this.depths.get(dependency.toLowerCase());
+                if (dependencyDepth == null) {
+                    missing = dependency.toLowerCase();
+                    break;
+                }
+
+                depth = Math.max(depth, dependencyDepth + 1);
+            }
+
+            if (missing != null) {
+                this.waiting.computeIfAbsent(missing, k -> new ArrayList<>()).add(next);
+            } else {
+                this.depths.put(next, depth);
+                List<String> waitingOnNext = this.waiting.remove(next);
+                if (waitingOnNext != null) {
+                    toPlace.addAll(waitingOnNext);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the modules in dependency order.
+     *
+     * @return The modules, in the order they should be loaded in.
+     * @throws IllegalStateException if any module has a missing or circular dependency.
+     */
+    Map<String, ModuleMetadata<? extends M>> getOrdered() {
+        if (this.depths.size() != this.modules.size()) {
+            throw new IllegalStateException("Some modules have circular dependencies: " + this.modules.keySet().stream()
+                    .filter(x -> !this.depths.containsKey(x))
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+
+        Map<String, ModuleMetadata<? extends M>> ordered = Maps.newLinkedHashMap();
+        this.modules.entrySet().stream()
+                .sorted(Comparator.<Map.Entry<String, ModuleMetadata<? extends M>>>comparingInt(x -> this.depths.get(x.getKey()))
+                        .thenComparing(x -> x.getValue().isMandatory())
+                        .thenComparing(Map.Entry::getKey))
+                .forEach(x -> ordered.put(x.getKey(), x.getValue()));
+        return ordered;
+    }
+}
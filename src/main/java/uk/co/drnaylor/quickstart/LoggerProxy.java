@@ -4,8 +4,16 @@
  */
 package uk.co.drnaylor.quickstart;
 
+import java.util.function.Supplier;
+
 /**
  * An interface that allows logging to occur with other frameworks.
+ *
+ * <p>
+ *     The {@link Supplier} overloads only build the message if the level is enabled, so messages that are expensive
+ *     to format cost nothing when nobody will read them. Implementations that can check their level should override
+ *     the <code>is*Enabled</code> methods.
+ * </p>
  */
 public interface LoggerProxy {
 
@@ -14,4 +22,34 @@ public interface LoggerProxy {
     void warn(String message);
 
     void error(String message);
+
+    default boolean isInfoEnabled() {
+        return true;
+    }
+
+    default boolean isWarnEnabled() {
+        return true;
+    }
+
+    default boolean isErrorEnabled() {
+        return true;
+    }
+
+    default void info(Supplier<String> message) {
+        if (isInfoEnabled()) {
+            info(message.get());
+        }
+    }
+
+    default void warn(Supplier<String> message) {
+        if (isWarnEnabled()) {
+            warn(message.get());
+        }
+    }
+
+    default void error(Supplier<String> message) {
+        if (isErrorEnabled()) {
+            error(message.get());
+        }
+    }
 }
@@ -0,0 +1,402 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import uk.co.drnaylor.quickstart.enums.LoadingStatus;
+import uk.co.drnaylor.quickstart.enums.ModulePhase;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * A snapshot of the modules in a {@link ModuleHolder}, their dependencies, and how long they took to construct and
+ * enable, obtained from {@link ModuleHolder#getModuleGraph()}. It can be written out as
+ * <a href="https://graphviz.org/doc/info/lang.html">DOT</a> or JSON.
+ *
+ * <p>
+ *     The graph also reports its critical path: the most expensive chain of dependencies among the modules that are
+ *     to be loaded. However parallel the load, it cannot take less time than this, so the total cost divided by the
+ *     cost of the critical path is the most that running modules in parallel can speed it up by. A module is costed
+ *     by its measured construction and enable times if it has been loaded, and by {@link Node#getCostHint()}
+ *     otherwise.
+ * </p>
+ */
+public final class ModuleGraph {
+
+    private final ImmutableMap<String, Node> nodes;
+    private final ImmutableList<String> criticalPath;
+    private final long criticalPathCost;
+    private final long totalCost;
+
+    ModuleGraph(Collection<Node> nodes) {
+        ImmutableMap.Builder<String, Node> builder = ImmutableMap.builder();
+        nodes.forEach(x -> builder.put(x.id, x));
+        this.nodes = builder.build();
+
+        // Nodes are in dependency order, so each node's dependencies have been seen by the time it is.
+        Map<String, Long> costs = Maps.newHashMap();
+        Map<String, String> previous = Maps.newHashMap();
+        String end = null;
+        long total = 0;
+        for (Node node : this.nodes.values()) {
+            if (!node.isLoading()) {
+                continue;
+            }
+
+            String before = null;
+            long longest = 0;
+            for (String dependency : node.getAllDependencies()) {
+                Long cost = costs.get(dependency);
+                if (cost != null && cost > longest) {
+                    before = dependency;
+                    longest = cost;
+                }
+            }
+
+            costs.put(node.id, longest + node.getCost());
+            previous.put(node.id, before);
+            total += node.getCost();
+            if (end == null || costs.get(node.id) > costs.get(end)) {
+                end = node.id;
+            }
+        }
+
+        List<String> path = Lists.newArrayList();
+        for (String id = end; id != null; id = previous.get(id)) {
+            path.add(id);
+        }
+
+        this.criticalPath = ImmutableList.copyOf(Lists.reverse(path));
+        this.criticalPathCost = end == null ? 0 : costs.get(end);
+        this.totalCost = total;
+    }
+
+    /**
+     * Gets the modules, by ID, in the order they are loaded in.
+     *
+     * @return The modules.
+     */
+    public Map<String, Node> getNodes() {
+        return this.nodes;
+    }
+
+    /**
+     * Gets the IDs of the modules on the critical path, from the first to load to the last.
+     *
+     * @return The critical path.
+     */
+    public List<String> getCriticalPath() {
+        return this.criticalPath;
+    }
+
+    /**
+     * Gets the cost of the critical path.
+     *
+     * @return The cost.
+     */
+    public Duration getCriticalPathCost() {
+        return Duration.ofNanos(this.criticalPathCost);
+    }
+
+    /**
+     * Gets the cost of every module that is to be loaded.
+     *
+     * @return The cost.
+     */
+    public Duration getTotalCost() {
+        return Duration.ofNanos(this.totalCost);
+    }
+
+    /**
+     * Gets the most that loading modules in parallel could speed up loading by, compared to loading them one at a
+     * time. This is the total cost divided by the cost of the critical path.
+     *
+     * @return The speedup, which is at least <code>1</code>.
+     */
+    public double getMaximumSpeedup() {
+        return this.criticalPathCost == 0 ? 1 : (double) this.totalCost / this.criticalPathCost;
+    }
+
+    /**
+     * Writes this graph in the DOT language. Edges point from a dependency to the modules that depend on it, soft
+     * dependencies are dashed, and the critical path is drawn in red.
+     *
+     * @param out Where to write the graph.
+     * @throws IOException if the graph could not be written.
+     */
+    public void writeDot(Appendable out) throws IOException {
+        String nl = System.lineSeparator();
+        out.append("digraph modules {").append(nl);
+        out.append("  rankdir=LR;").append(nl);
+        for (Node node : this.nodes.values()) {
+            out.append("  ").append(dotString(node.id)).append(" [label=").append(dotString(node.getLabel()));
+            if (!node.isLoading()) {
+                out.append(", style=dashed, fontcolor=gray");
+            } else if (this.criticalPath.contains(node.id)) {
+                out.append(", color=red");
+            }
+
+            out.append("];").append(nl);
+        }
+
+        for (Node node : this.nodes.values()) {
+            for (String dependency : node.dependencies) {
+                appendEdge(out, dependency, node.id, false);
+            }
+
+            for (String dependency : node.softDependencies) {
+                appendEdge(out, dependency, node.id, true);
+            }
+        }
+
+        out.append("}").append(nl);
+    }
+
+    /**
+     * Writes this graph as JSON. Times are in nanoseconds, and cost hints in milliseconds.
+     *
+     * @param out Where to write the graph.
+     * @throws IOException if the graph could not be written.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\"modules\":[");
+        Iterator<Node> it = this.nodes.values().iterator();
+        while (it.hasNext()) {
+            Node node = it.next();
+            out.append("{\"id\":").append(jsonString(node.id))
+                    .append(",\"name\":").append(jsonString(node.name))
+                    .append(",\"status\":").append(jsonString(node.status.name()))
+                    .append(",\"phase\":").append(jsonString(node.phase.name()))
+                    .append(",\"dependencies\":").append(jsonArray(node.dependencies))
+                    .append(",\"softDependencies\":").append(jsonArray(node.softDependencies))
+                    .append(",\"costHint\":").append(String.valueOf(node.costHint))
+                    .append(",\"constructionTime\":").append(jsonNanos(node.constructionTime))
+                    .append(",\"enableTime\":").append(jsonNanos(node.enableTime))
+                    .append("}");
+            if (it.hasNext()) {
+                out.append(",");
+            }
+        }
+
+        out.append("],\"criticalPath\":").append(jsonArray(this.criticalPath))
+                .append(",\"criticalPathCost\":").append(String.valueOf(this.criticalPathCost))
+                .append(",\"totalCost\":").append(String.valueOf(this.totalCost))
+                .append(",\"maximumSpeedup\":").append(String.valueOf(getMaximumSpeedup()))
+                .append("}");
+    }
+
+    private void appendEdge(Appendable out, String from, String to, boolean soft) throws IOException {
+        if (!this.nodes.containsKey(from)) {
+            return;
+        }
+
+        out.append("  ").append(dotString(from)).append(" -> ").append(dotString(to));
+        boolean critical = this.criticalPath.contains(to) && this.criticalPath.indexOf(to) > 0
+                && this.criticalPath.get(this.criticalPath.indexOf(to) - 1).equals(from);
+        if (soft || critical) {
+            out.append(" [");
+            if (soft) {
+                out.append("style=dashed");
+            }
+
+            if (critical) {
+                out.append(soft ? ", " : "").append("color=red");
+            }
+
+            out.append("]");
+        }
+
+        out.append(";").append(System.lineSeparator());
+    }
+
+    private static String dotString(String s) {
+        return "\"" + s.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n") + "\"";
+    }
+
+    private static String jsonString(String s) {
+        StringBuilder sb = new StringBuilder("\"");
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.append('"').toString();
+    }
+
+    private static String jsonArray(List<String> values) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+
+            sb.append(jsonString(values.get(i)));
+        }
+
+        return sb.append(']').toString();
+    }
+
+    private static String jsonNanos(@Nullable Duration duration) {
+        return duration == null ? "null" : String.valueOf(duration.toNanos());
+    }
+
+    /**
+     * A module in a {@link ModuleGraph}.
+     */
+    public static final class Node {
+
+        private final String id;
+        private final String name;
+        private final LoadingStatus status;
+        private final ModulePhase phase;
+        private final ImmutableList<String> dependencies;
+        private final ImmutableList<String> softDependencies;
+        private final long costHint;
+        @Nullable private final Duration constructionTime;
+        @Nullable private final Duration enableTime;
+
+        Node(String id, ModuleMetadata<?> metadata, @Nullable Duration constructionTime, @Nullable Duration enableTime) {
+            this.id = id;
+            this.name = metadata.getName();
+            this.status = metadata.getStatus();
+            this.phase = metadata.getPhase();
+            this.dependencies = ImmutableList.copyOf(metadata.getDependencies().stream().map(String::toLowerCase).collect(Collectors.toList()));
+            this.softDependencies = ImmutableList.copyOf(metadata.getSoftDependencies().stream().map(String::toLowerCase).collect(Collectors.toList()));
+            this.costHint = metadata.getCost();
+            this.constructionTime = constructionTime;
+            this.enableTime = enableTime;
+        }
+
+        /**
+         * Gets the ID of the module.
+         *
+         * @return The ID.
+         */
+        public String getId() {
+            return this.id;
+        }
+
+        /**
+         * Gets the name of the module.
+         *
+         * @return The name.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Gets the {@link LoadingStatus} of the module.
+         *
+         * @return The {@link LoadingStatus}.
+         */
+        public LoadingStatus getStatus() {
+            return this.status;
+        }
+
+        /**
+         * Gets the {@link ModulePhase} the module was in.
+         *
+         * @return The {@link ModulePhase}.
+         */
+        public ModulePhase getPhase() {
+            return this.phase;
+        }
+
+        /**
+         * Gets the IDs of the modules this module depends on.
+         *
+         * @return The IDs.
+         */
+        public List<String> getDependencies() {
+            return this.dependencies;
+        }
+
+        /**
+         * Gets the IDs of the modules this module soft depends on.
+         *
+         * @return The IDs.
+         */
+        public List<String> getSoftDependencies() {
+            return this.softDependencies;
+        }
+
+        /**
+         * Gets the hinted cost of the module, in milliseconds, from {@link ModuleMetadata#getCost()}.
+         *
+         * @return The cost hint.
+         */
+        public long getCostHint() {
+            return this.costHint;
+        }
+
+        /**
+         * Gets how long the module took to construct, if it has been constructed.
+         *
+         * @return The time, if any.
+         */
+        public Optional<Duration> getConstructionTime() {
+            return Optional.ofNullable(this.constructionTime);
+        }
+
+        /**
+         * Gets how long the module spent in its enable phases, if it has been enabled.
+         *
+         * @return The time, if any.
+         */
+        public Optional<Duration> getEnableTime() {
+            return Optional.ofNullable(this.enableTime);
+        }
+
+        private boolean isLoading() {
+            return this.status != LoadingStatus.DISABLED && this.phase != ModulePhase.ERRORED;
+        }
+
+        private Iterable<String> getAllDependencies() {
+            return () -> Stream.concat(this.dependencies.stream(), this.softDependencies.stream()).iterator();
+        }
+
+        private long getCost() {
+            if (this.constructionTime == null && this.enableTime == null) {
+                return TimeUnit.MILLISECONDS.toNanos(this.costHint);
+            }
+
+            return (this.constructionTime == null ? 0 : this.constructionTime.toNanos())
+                    + (this.enableTime == null ? 0 : this.enableTime.toNanos());
+        }
+
+        private String getLabel() {
+            StringBuilder sb = new StringBuilder(this.id);
+            if (this.constructionTime != null) {
+                sb.append("\nconstruct ").append(this.constructionTime.toMillis()).append("ms");
+            }
+
+            if (this.enableTime != null) {
+                sb.append("\nenable ").append(this.enableTime.toMillis()).append("ms");
+            }
+
+            return sb.toString();
+        }
+    }
+}
@@ -8,7 +8,9 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import ninja.leaping.configurate.ConfigurationNode;
 import ninja.leaping.configurate.ConfigurationOptions;
 import ninja.leaping.configurate.loader.ConfigurationLoader;
@@ -17,10 +19,13 @@ import ninja.leaping.configurate.objectmapping.serialize.ConfigSerializable;
 import uk.co.drnaylor.quickstart.annotations.ModuleData;
 import uk.co.drnaylor.quickstart.config.AbstractConfigAdapter;
 import uk.co.drnaylor.quickstart.config.NoMergeIfPresent;
+import uk.co.drnaylor.quickstart.config.SnapshotConfigurationLoader;
 import uk.co.drnaylor.quickstart.config.TypedAbstractConfigAdapter;
 import uk.co.drnaylor.quickstart.enums.ConstructionPhase;
 import uk.co.drnaylor.quickstart.enums.LoadingStatus;
 import uk.co.drnaylor.quickstart.enums.ModulePhase;
+import uk.co.drnaylor.quickstart.enums.WatchdogPolicy;
+import uk.co.drnaylor.quickstart.events.ModuleLifecycleListener;
 import uk.co.drnaylor.quickstart.exceptions.IncorrectAdapterTypeException;
 import uk.co.drnaylor.quickstart.exceptions.MissingDependencyException;
 import uk.co.drnaylor.quickstart.exceptions.NoModuleException;
@@ -28,21 +33,44 @@ import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleDiscoveryException;
 import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleLoaderException;
 import uk.co.drnaylor.quickstart.exceptions.UndisableableModuleException;
 import uk.co.drnaylor.quickstart.loaders.PhasedModuleEnabler;
+import uk.co.drnaylor.quickstart.util.PhaseExecutors;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.text.MessageFormat;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nullable;
 
@@ -74,27 +102,42 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
     /**
      * The current phase of the container.
      */
-    private ConstructionPhase currentPhase = ConstructionPhase.INITALISED;
+    private volatile ConstructionPhase currentPhase = ConstructionPhase.INITALISED;
 
     /**
      * The modules that have been discovered by the container.
      */
     private final Map<String, ModuleMetadata<? extends M>> discoveredModules = Maps.newLinkedHashMap();
 
+    /**
+     * The {@link ModuleKey}s for the discovered modules, by ID, created once discovery has completed.
+     */
+    private final Map<String, ModuleKey<?>> moduleKeys = Maps.newHashMap();
+
+    /**
+     * The discovered modules, by {@link ModuleKey#getIndex()}.
+     */
+    private ModuleMetadata<?>[] metadataByIndex = new ModuleMetadata<?>[0];
+
     /**
      * Loaded modules that can be disabled.
      */
-    private final Map<String, ModuleMetadata<? extends D>> enabledDisableableModules = Maps.newHashMap();
+    private final ModuleRegistry<ModuleMetadata<? extends D>> enabledDisableableModules = new ModuleRegistry<>(this.moduleKeys);
 
     /**
      * The modules that are enabled.
      */
-    private final Map<String, M> enabledModules = Maps.newHashMap();
+    private final ModuleRegistry<M> enabledModules = new ModuleRegistry<>(this.moduleKeys);
+
+    /**
+     * The attached config adapters, by {@link ModuleKey#getIndex()}, republished whenever adapters may have changed.
+     */
+    private volatile AbstractConfigAdapter<?>[] adapterSnapshot = new AbstractConfigAdapter<?>[0];
 
     /**
      * The actual disableable module objects
      */
-    private final Map<String, D> disableableModules = Maps.newHashMap();
+    private final ModuleRegistry<D> disableableModules = new ModuleRegistry<>(this.moduleKeys);
 
     /**
      * Contains the main configuration file.
@@ -141,6 +184,80 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
      */
     @Nullable private final String moduleSectionHeader;
 
+    /**
+     * The listeners for lifecycle events. This is copied on write so that firing an event
+     * neither allocates nor needs to lock.
+     */
+    private volatile ModuleLifecycleListener[] listeners;
+
+    /**
+     * The plan to use instead of discovering and resolving modules, if any.
+     */
+    @Nullable private final BootPlan bootPlan;
+
+    /**
+     * Whether the modules were discovered from the {@link #bootPlan}.
+     */
+    private boolean discoveredFromPlan = false;
+
+    /**
+     * The module statuses before modules with disabled dependencies were disabled, recorded for the {@link BootPlan}.
+     */
+    @Nullable private Map<String, LoadingStatus> statusesBeforeCascade = null;
+
+    /**
+     * The modules that were disabled because a dependency was disabled, recorded for the {@link BootPlan}.
+     */
+    private Set<String> cascade = ImmutableSet.of();
+
+    /**
+     * Lazy modules that will be activated when first used.
+     */
+    private final Set<String> deferredModules = ConcurrentHashMap.newKeySet();
+
+    /**
+     * The activation of each lazy module that has been used, or that has been stopped from ever being used, by module
+     * ID. Each lazy module is activated by the thread that puts its activation here first.
+     */
+    private final Map<String, LazyActivation> lazyActivations = new ConcurrentHashMap<>();
+
+    /**
+     * The activation that each thread is waiting on, used to avoid waiting on an activation that is waiting on us.
+     */
+    private final Map<Thread, LazyActivation> awaitedActivations = new ConcurrentHashMap<>();
+
+    /**
+     * Held while the config adapters or the module registries are changed outside of loading, and while the adapter
+     * snapshot is published, so that lazy modules activating on different threads do not interleave.
+     */
+    private final Object configLock = new Object();
+
+    /**
+     * The file to write a class list to once modules have loaded, if training.
+     */
+    @Nullable private final Path classListFile;
+
+    /**
+     * The {@link Executor} to run module phases on, or {@code null} to run enable phases on the calling thread.
+     */
+    @Nullable private final Executor phaseExecutor;
+
+    /**
+     * The config adapter classes that were attached, by module ID, recorded for the class list. Lazy modules attach
+     * their adapters on whichever thread first uses them.
+     */
+    private final Map<String, Class<?>> adapterClasses = new ConcurrentHashMap<>();
+
+    /**
+     * How long each module took to construct, in nanoseconds, by module ID.
+     */
+    private final Map<String, Long> constructionTimings = new ConcurrentHashMap<>();
+
+    /**
+     * How long each module has spent in its enable phases, in nanoseconds, by module ID.
+     */
+    private final Map<String, Long> enableTimings = new ConcurrentHashMap<>();
+
     protected <R extends ModuleHolder<M, D>, B extends Builder<M, D, R, B>> ModuleHolder(B builder)
             throws QuickStartModuleDiscoveryException {
         try {
@@ -163,6 +280,10 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
             this.moduleSection = builder.moduleConfigSection;
             this.moduleSectionHeader = builder.moduleDescription;
             this.allowDisabling = builder.allowDisabling;
+            this.listeners = builder.listeners.toArray(new ModuleLifecycleListener[0]);
+            this.bootPlan = builder.bootPlan;
+            this.classListFile = builder.classListFile;
+            this.phaseExecutor = builder.phaseExecutor;
         } catch (Exception e) {
             throw new QuickStartModuleDiscoveryException("Unable to start QuickStart", e);
         }
@@ -174,36 +295,16 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
             Preconditions.checkState(currentPhase == ConstructionPhase.INITALISED);
             currentPhase = ConstructionPhase.DISCOVERING;
 
-            Set<Class<? extends M>> modules = discoverModules();
-            HashMap<String, ModuleMetadata<? extends M>> discovered = Maps.newHashMap();
-            for (Class<? extends M> s : modules) {
-                // If we have a module annotation, we are golden.
-                String id;
-                ModuleMetadata<? extends M> ms;
-                if (s.isAnnotationPresent(ModuleData.class)) {
-                    ModuleData md = s.getAnnotation(ModuleData.class);
-                    id = md.id().toLowerCase();
-                    ms = new ModuleMetadata<>(s, this.disableableClass.isAssignableFrom(s), md);
-                } else if (this.requireAnnotation) {
-                    loggerProxy.warn(MessageFormat.format("The module class {0} does not have a ModuleData annotation associated with it. "
-                            + "It is not being loaded as the module container requires the annotation to be present.", s.getName()));
-                    continue;
-                } else {
-                    id = s.getName().toLowerCase();
-                    loggerProxy.warn(MessageFormat.format("The module {0} does not have a ModuleData annotation associated with it. We're just assuming an ID of {0}.", id));
-                    ms = new ModuleMetadata<>(s, this.disableableClass.isAssignableFrom(s), id, id, LoadingStatus.ENABLED, false);
-                }
-
-                if (discovered.containsKey(id)) {
-                    throw new QuickStartModuleDiscoveryException("Duplicate module ID \"" + id + "\" was discovered - loading cannot continue.");
-                }
-
-                discovered.put(id, ms);
+            Map<String, ModuleMetadata<? extends M>> planned = this.bootPlan == null ? null : discoverFromPlan(this.bootPlan);
+            if (planned != null) {
+                // The plan is already in dependency order.
+                this.discoveredModules.putAll(planned);
+                this.discoveredFromPlan = true;
+            } else {
+                // Metadata is read, and the dependency order built, while the classpath is still being scanned.
+                this.discoveredModules.putAll(discoverConcurrently());
             }
 
-            // Create the dependency map.
-            resolveDependencyOrder(discovered);
-
             // Modules discovered. Create the Module Config adapter.
             List<ModuleMetadata<? extends M>> moduleMetadataList =
                     this.discoveredModules.values().stream()
@@ -222,10 +323,10 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
                         if (ms != null) {
                             ms.setStatus(v);
                         } else {
-                            loggerProxy.warn(String.format("Ignoring module entry %s in the configuration file: module does not exist.", k));
+                            loggerProxy.warn(() -> String.format("Ignoring module entry %s in the configuration file: module does not exist.", k));
                         }
                     } catch (IllegalStateException ex) {
-                        loggerProxy.warn("A mandatory module can't have its status changed by config. Falling back to FORCELOAD for " + k);
+                        loggerProxy.warn(() -> "A mandatory module can't have its status changed by config. Falling back to FORCELOAD for " + k);
                     }
                 });
             } catch (ObjectMappingException e) {
@@ -234,7 +335,11 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
             }
 
             // Modules have been discovered.
+            createModuleKeys();
             currentPhase = ConstructionPhase.DISCOVERED;
+            for (ModuleMetadata<? extends M> ms : this.discoveredModules.values()) {
+                fireDiscovered(ms);
+            }
         } catch (QuickStartModuleDiscoveryException ex) {
             throw ex;
         } catch (Exception e) {
@@ -242,31 +347,123 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         }
     }
 
-    private void resolveDependencyOrder(Map<String, ModuleMetadata<? extends M>> modules) throws Exception {
-        // First, get the modules that have no deps.
-        processDependencyStep(modules, x -> x.getValue().getDependencies().isEmpty() && x.getValue().getSoftDependencies().isEmpty());
+    @Nullable
+    private ModuleMetadata<? extends M> createMetadata(Class<? extends M> s) {
+        // If we have a module annotation, we are golden.
+        ModuleData md = getModuleData(s);
+        if (md != null) {
+            return new ModuleMetadata<>(s, this.disableableClass.isAssignableFrom(s), md);
+        } else if (this.requireAnnotation) {
+            loggerProxy.warn(() -> MessageFormat.format("The module class {0} does not have a ModuleData annotation associated with it. "
+                    + "It is not being loaded as the module container requires the annotation to be present.", s.getName()));
+            return null;
+        }
+
+        String id = s.getName().toLowerCase();
+        loggerProxy.warn(() -> MessageFormat.format("The module {0} does not have a ModuleData annotation associated with it. We're just assuming an ID of {0}.", id));
+        return new ModuleMetadata<>(s, this.disableableClass.isAssignableFrom(s), id, id, LoadingStatus.ENABLED, false);
+    }
+
+    /**
+     * Builds the discovered modules from a {@link BootPlan}, checking that the plan still matches the classpath.
+     *
+     * @param plan The plan.
+     * @return The modules, in dependency order, or {@code null} if the plan cannot be used.
+     */
+    @Nullable
+    private Map<String, ModuleMetadata<? extends M>> discoverFromPlan(BootPlan plan) {
+        if (!plan.getPhases().equals(ImmutableList.copyOf(this.enabler.getEnablePhases()))) {
+            loggerProxy.warn("The boot plan was created with different enable phases, ignoring it.");
+            return null;
+        }
+
+        Map<String, ModuleMetadata<? extends M>> planned = Maps.newLinkedHashMap();
+        for (Map.Entry<String, String> entry : plan.getModules().entrySet()) {
+            Class<?> moduleClass;
+            try {
+                moduleClass = loadPlannedClass(entry.getValue());
+            } catch (ClassNotFoundException | LinkageError e) {
+                loggerProxy.warn(() -> "The module class " + entry.getValue() + " in the boot plan could not be loaded, ignoring the plan.");
+                return null;
+            }
+
+            ModuleMetadata<? extends M> ms = this.baseClass.isAssignableFrom(moduleClass) ? createMetadata(moduleClass.asSubclass(this.baseClass)) : null;
+            if (ms == null || !ms.getId().toLowerCase().equals(entry.getKey())) {
+                loggerProxy.warn(() -> "The module " + entry.getKey() + " no longer matches the boot plan, ignoring the plan.");
+                return null;
+            }
+
+            // Everything a module depends on must come before it. The plan is keyed by lower case ID.
+            if (Stream.concat(ms.getDependencies().stream(), ms.getSoftDependencies().stream())
+                    .anyMatch(x -> !planned.containsKey(x.toLowerCase()))) {
+                loggerProxy.warn(() -> "The dependencies of " + entry.getKey() + " no longer match the boot plan, ignoring the plan.");
+                return null;
+            }
 
-        while (!modules.isEmpty()) {
-            Set<String> addedModules = discoveredModules.keySet();
-            processDependencyStep(modules, x -> addedModules.containsAll(x.getValue().getDependencies()) && addedModules.containsAll(x.getValue().getSoftDependencies()));
+            planned.put(entry.getKey(), ms);
         }
+
+        return planned;
+    }
+
+    /**
+     * Loads a module class that is named in a {@link BootPlan}. The class should not be initialised.
+     *
+     * @param className The name of the class.
+     * @return The {@link Class}
+     * @throws ClassNotFoundException if the class does not exist.
+     */
+    protected Class<?> loadPlannedClass(String className) throws ClassNotFoundException {
+        return Class.forName(className, false, this.baseClass.getClassLoader());
     }
 
-    private void processDependencyStep(Map<String, ModuleMetadata<? extends M>> modules, Predicate<Map.Entry<String, ModuleMetadata<? extends M>>> predicate) {
-        // Filter on the predicate
-        List<Map.Entry<String, ModuleMetadata<? extends M>>> modulesToAdd = modules.entrySet().stream().filter(predicate)
-                .sorted((x, y) -> x.getValue().isMandatory() == y.getValue().isMandatory() ? x.getKey().compareTo(y.getKey()) : Boolean.compare(x.getValue().isMandatory(), y.getValue().isMandatory()))
-                .collect(Collectors.toList());
+    private Map<String, ModuleMetadata<? extends M>> discoverConcurrently() throws Exception {
+        // An empty Optional marks the end of the scan.
+        BlockingQueue<Optional<Class<? extends M>>> found = new LinkedBlockingQueue<>();
+        AtomicBoolean stop = new AtomicBoolean();
+        CompletableFuture<Void> scan = CompletableFuture.runAsync(() -> {
+            try {
+                discoverModules(x -> {
+                    if (stop.get()) {
+                        throw new CancellationException("Discovery has already failed.");
+                    }
+
+                    found.add(Optional.of(x));
+                });
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            } finally {
+                found.add(Optional.empty());
+            }
+        }, getExecutor());
 
-        if (modulesToAdd.isEmpty()) {
-            throw new IllegalStateException("Some modules have circular dependencies: " + String.join(", ", modules.keySet()));
+        DependencyOrder<M> order = new DependencyOrder<>();
+        Set<Class<? extends M>> seen = new HashSet<>();
+        try {
+            for (Optional<Class<? extends M>> next = found.take(); next.isPresent(); next = found.take()) {
+                if (seen.add(next.get())) {
+                    ModuleMetadata<? extends M> ms = createMetadata(next.get());
+                    if (ms != null) {
+                        order.add(ms.getId().toLowerCase(), ms);
+                    }
+                }
+            }
+        } catch (Exception | Error e) {
+            stop.set(true);
+            throw e;
         }
 
-        modulesToAdd.forEach(x -> {
-            discoveredModules.put(x.getKey(), x.getValue());
-            modules.remove(x.getKey());
-        });
+        try {
+            scan.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
 
+            throw e;
+        }
+
+        return order.getOrdered();
     }
 
     private boolean dependenciesSatisfied(ModuleMetadata<? extends M> moduleMetadata, Set<String> enabledModules) {
@@ -275,7 +472,8 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         }
 
         for (String m : moduleMetadata.getDependencies()) {
-            if (!enabledModules.contains(m) || !dependenciesSatisfied(this.discoveredModules.get(m), enabledModules)) {
+            String id = m.toLowerCase();
+            if (!enabledModules.contains(id) || !dependenciesSatisfied(this.discoveredModules.get(id), enabledModules)) {
                 return false;
             }
         }
@@ -286,6 +484,32 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
 
     protected abstract Set<Class<? extends M>> discoverModules() throws Exception;
 
+    /**
+     * Discovers modules, passing each module class to the sink as soon as it is found. Discovery runs on the
+     * {@link Executor} set using {@link Builder#setPhaseExecutor(Executor)}, or the common pool, while the holder reads
+     * the metadata of the modules that have been found so far. The sink may throw an unchecked exception to stop
+     * discovery, once the holder no longer needs the rest of the modules.
+     *
+     * <p>By default, the modules from {@link #discoverModules()} are passed on once it returns.</p>
+     *
+     * @param sink The {@link Consumer} to pass module classes to.
+     * @throws Exception if the modules could not be discovered.
+     */
+    protected void discoverModules(Consumer<Class<? extends M>> sink) throws Exception {
+        discoverModules().forEach(sink);
+    }
+
+    /**
+     * Gets the {@link ModuleData} annotation on a module class.
+     *
+     * @param moduleClass The module class.
+     * @return The {@link ModuleData}, or {@code null} if there is none.
+     */
+    @Nullable
+    protected ModuleData getModuleData(Class<? extends M> moduleClass) {
+        return moduleClass.getAnnotation(ModuleData.class);
+    }
+
     /**
      * Gets the current phase of the module loader.
      *
@@ -326,6 +550,53 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         return ImmutableMap.copyOf(discoveredModules.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, v -> v.getValue().getStatus())));
     }
 
+    /**
+     * Gets a {@link BootPlan} that records how the modules in this holder were discovered, ordered and disabled, so
+     * that the next start can skip that work. See {@link Builder#setBootPlan(BootPlan)}.
+     *
+     * @return The {@link BootPlan}.
+     */
+    public final BootPlan getBootPlan() {
+        Preconditions.checkState(this.statusesBeforeCascade != null, "Modules must be loaded before a boot plan can be created.");
+        Map<String, String> modules = Maps.newLinkedHashMap();
+        this.discoveredModules.forEach((k, v) -> modules.put(k, v.getModuleClass().getName()));
+        return new BootPlan(modules, this.statusesBeforeCascade, this.cascade, ImmutableList.copyOf(this.enabler.getEnablePhases()),
+                getEnableTimings());
+    }
+
+    /**
+     * Gets a {@link ModuleGraph} of the discovered modules, their dependencies, and how long they have taken to
+     * construct and enable so far.
+     *
+     * @return The {@link ModuleGraph}.
+     */
+    public final ModuleGraph getModuleGraph() {
+        Preconditions.checkState(currentPhase != ConstructionPhase.INITALISED && currentPhase != ConstructionPhase.DISCOVERING);
+        List<ModuleGraph.Node> nodes = Lists.newArrayList();
+        this.discoveredModules.forEach((k, v) -> nodes.add(new ModuleGraph.Node(k, v,
+                Optional.ofNullable(this.constructionTimings.get(k)).map(Duration::ofNanos).orElse(null),
+                Optional.ofNullable(this.enableTimings.get(k)).map(Duration::ofNanos).orElse(null))));
+        return new ModuleGraph(nodes);
+    }
+
+    /**
+     * Gets how long each module has spent in its enable phases.
+     *
+     * @return The module IDs, mapped to their timings.
+     */
+    public final Map<String, Duration> getEnableTimings() {
+        return ImmutableMap.copyOf(Maps.transformValues(this.enableTimings, Duration::ofNanos));
+    }
+
+    /**
+     * Gets whether the modules in this holder were discovered from a {@link BootPlan}, rather than by discovery.
+     *
+     * @return <code>true</code> if so.
+     */
+    public final boolean isDiscoveredFromBootPlan() {
+        return this.discoveredFromPlan;
+    }
+
     /**
      * Gets whether a module is enabled and loaded.
      *
@@ -347,6 +618,54 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         return ms.getPhase() == ModulePhase.ENABLED;
     }
 
+    /**
+     * Gets whether a module is enabled and loaded.
+     *
+     * @param key The {@link ModuleKey} of the module.
+     * @return <code>true</code> if it is enabled.
+     */
+    public final boolean isModuleLoaded(ModuleKey<?> key) {
+        Preconditions.checkArgument(key.holder == this, "The key was issued by another module holder.");
+        return (currentPhase == ConstructionPhase.ENABLING || currentPhase == ConstructionPhase.ENABLED)
+                && this.metadataByIndex[key.index].getPhase() == ModulePhase.ENABLED;
+    }
+
+    /**
+     * Gets the {@link ModuleKey} for a discovered module. The same key is returned every time for the same module.
+     *
+     * @param id The ID of the module.
+     * @param type The type of the module, or a supertype of it.
+     * @param <T> The type of the module.
+     * @return The {@link ModuleKey}.
+     * @throws NoModuleException if no module with that ID was discovered.
+     * @throws IllegalArgumentException if the module is not of the given type, or the type is loaded again by the
+     *                                  module's own class loader.
+     */
+    @SuppressWarnings("unchecked")
+    public final <T extends M> ModuleKey<T> getModuleKey(String id, Class<T> type) throws NoModuleException {
+        Preconditions.checkState(currentPhase != ConstructionPhase.INITALISED && currentPhase != ConstructionPhase.DISCOVERING);
+        ModuleKey<?> key = this.moduleKeys.get(id.toLowerCase());
+        if (key == null) {
+            throw new NoModuleException(id);
+        }
+
+        Preconditions.checkArgument(isModuleUsableAs(this.discoveredModules.get(key.getId()), type), "The module %s is not a %s", id, type.getName());
+        return (ModuleKey<T>) key;
+    }
+
+    /**
+     * Gets whether the instances of a module can be used as the given type. By default, this is whether the
+     * discovered module class is a subtype of it. Holders that construct modules from their own class loaders must
+     * also reject types that those class loaders define again.
+     *
+     * @param spec The {@link ModuleMetadata} of the module.
+     * @param type The type.
+     * @return <code>true</code> if so.
+     */
+    protected boolean isModuleUsableAs(ModuleMetadata<? extends M> spec, Class<?> type) {
+        return type.isAssignableFrom(spec.getModuleClass());
+    }
+
     /**
      * Requests that a module be disabled. This can only be run during the {@link ConstructionPhase#DISCOVERED} phase, or for
      * {@link Module}s that are disableable (of type {@link D}, {@link ConstructionPhase#ENABLED}.
@@ -359,7 +678,7 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
     public void disableModule(String moduleName) throws UndisableableModuleException, NoModuleException, QuickStartModuleLoaderException {
         if (currentPhase == ConstructionPhase.DISCOVERED) {
 
-            ModuleMetadata ms = discoveredModules.get(moduleName);
+            ModuleMetadata<? extends M> ms = discoveredModules.get(moduleName);
             if (ms == null) {
                 // No module
                 throw new NoModuleException(moduleName);
@@ -376,7 +695,7 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
                 throw new UndisableableModuleException(moduleName.toLowerCase(), "Cannot disable modules in this holder.");
             }
 
-            ModuleMetadata ms = this.enabledDisableableModules.get(moduleName);
+            ModuleMetadata<? extends D> ms = this.enabledDisableableModules.get(moduleName);
             if (ms == null || !ms.isRuntimeAlterable()) {
                 throw new UndisableableModuleException(moduleName.toLowerCase(), "Cannot disable this module at runtime!");
             }
@@ -390,8 +709,9 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
                 try {
                     this.enabler.startDisablePhase(phase, this, module);
                 } catch (Exception e) {
-                    detachConfig(ms.getName());
+                    detachConfig(moduleName);
                     ms.setPhase(ModulePhase.ERRORED);
+                    fireErrored(ms, e);
                     throw new QuickStartModuleLoaderException.Disabling(
                             module.getClass(),
                             "Could not disable the module " + ms.getId(),
@@ -400,146 +720,861 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
                 }
             }
 
-            detachConfig(ms.getName());
+            detachConfig(moduleName);
             ms.setPhase(ModulePhase.DISABLED);
 
             this.enabledModules.remove(moduleName);
             this.enabledDisableableModules.remove(moduleName);
-        }
-    }
-
-    protected final Class<M> getBaseClass() {
-        return this.baseClass;
-    }
+            if (releaseDisabledModules()) {
+                // Drop every reference to the instance, so that it can be collected along with its classes.
+                this.disableableModules.remove(moduleName);
+                this.adapterClasses.remove(moduleName);
+            }
 
-    /**
-     * Get n enabled module given the ID.
-     *
-     * @param id The ID
-     * @param <T> The type, for duck typing
-     * @return The module, if it exists.
-     */
-    @SuppressWarnings("unchecked")
-    public <T extends M> Optional<T> getModule(String id) {
-        return Optional.ofNullable((T) this.enabledModules.get(id));
-    }
+            publishSnapshot();
 
-    protected M getModule(ModuleMetadata<? extends M> spec) throws Exception {
-        M module = this.enabledModules.get(spec.getId());
-        if (module == null) {
-            return constructModule(spec);
+            fireDisabled(ms);
         }
-
-        return module;
     }
 
-    protected abstract M constructModule(ModuleMetadata<? extends M> spec) throws Exception;
-
     /**
-     * Starts the module construction and enabling phase. This is the final phase for loading the modules.
+     * Disables a set of runtime disableable modules, along with the enabled modules that depend on them if
+     * {@code cascade} is set.
      *
      * <p>
-     *     Once this method is called, modules can no longer be removed.
+     *     Modules are disabled in reverse dependency order: a module is only disabled once every module in the batch
+     *     that depends, or soft depends, on it has been. Modules that do not depend on each other are disabled concurrently, so the disable
+     *     phases of the {@link PhasedModuleEnabler} must be able to run on more than one thread at once. Once every module
+     *     has been disabled, the system config is saved and the modules are removed from the holder in one step.
      * </p>
      *
-     * @param failOnOneError If set to <code>true</code>, one module failure will mark the whole loading sequence as failed.
-     *                       Otherwise, no modules being constructed will cause a failure.
+     * <p>
+     *     If a module fails to disable, it is marked as errored and the modules it depends on are left enabled. All other
+     *     modules are still disabled.
+     * </p>
      *
-     * @throws QuickStartModuleLoaderException.Construction if the modules cannot be constructed.
-     * @throws QuickStartModuleLoaderException.Enabling if the modules cannot be enabled.
+     * @param moduleNames The IDs of the modules to disable.
+     * @param cascade If <code>true</code>, enabled modules that depend on the modules being disabled are also disabled,
+     *                as are lazy modules that depend on them and have not been used yet. If <code>false</code>, such
+     *                modules cause this method to fail before anything is disabled.
+     * @throws UndisableableModuleException if a module, or a dependent module, can't be disabled at runtime.
+     * @throws NoModuleException if a module does not exist.
+     * @throws QuickStartModuleLoaderException if there is a failure during disabling.
      */
-    public void loadModules(boolean failOnOneError) throws QuickStartModuleLoaderException.Construction, QuickStartModuleLoaderException.Enabling {
-        Preconditions.checkArgument(currentPhase == ConstructionPhase.DISCOVERED);
-        currentPhase = ConstructionPhase.ENABLING;
+    public final void disableModules(Set<String> moduleNames, boolean cascade)
+            throws UndisableableModuleException, NoModuleException, QuickStartModuleLoaderException {
+        Preconditions.checkState(currentPhase == ConstructionPhase.ENABLED);
+        if (!this.allowDisabling) {
+            throw new UndisableableModuleException(String.join(", ", moduleNames), "Cannot disable modules in this holder.");
+        }
 
-        // Get the modules that are being disabled and mark them as such.
-        Set<String> disabledModules = getModules(ModuleStatusTristate.DISABLE);
-        while (!disabledModules.isEmpty()) {
-            // Find any modules that have dependencies on disabled modules, and disable them.
-            List<ModuleMetadata<? extends M>> toDisable = getModules(ModuleStatusTristate.ENABLE)
-                    .stream()
-                    .map(discoveredModules::get)
-                    .filter(x -> !Collections.disjoint(disabledModules, x.getDependencies()))
-                    .collect(Collectors.toList());
-            if (toDisable.isEmpty()) {
-                break;
+        Set<String> toDisable = new HashSet<>();
+        for (String moduleName : moduleNames) {
+            String id = moduleName.toLowerCase();
+            checkRuntimeDisableable(id);
+            toDisable.add(id);
+        }
+
+        addEnabledDependents(toDisable, cascade);
+
+        // Lazy modules that have not been used yet could not be activated without the modules being disabled, so they
+        // are stopped from ever being activated. One that is being activated now is waited for, and is then an
+        // enabled dependent like any other.
+        Set<String> deferred = new HashSet<>();
+        Set<String> lazyDependents;
+        while (!(lazyDependents = getDeferredDependents(Sets.union(toDisable, deferred))).isEmpty()) {
+            if (!cascade) {
+                throw new UndisableableModuleException(String.join(", ", lazyDependents),
+                        "The lazy modules " + String.join(", ", lazyDependents) + " depend on modules that are being disabled.");
             }
 
-            if (toDisable.stream().anyMatch(ModuleMetadata::isMandatory)) {
-                String s = toDisable.stream().filter(ModuleMetadata::isMandatory).map(ModuleMetadata::getId).collect(Collectors.joining(", "));
-                Class<? extends M> m = toDisable.stream().filter(ModuleMetadata::isMandatory).findFirst().get().getModuleClass();
-                throw new QuickStartModuleLoaderException.Construction(m,
-                        "Tried to disable mandatory module",
-                        new IllegalStateException("Dependency failure, tried to disable a mandatory module (" + s + ")"));
+            for (String id : lazyDependents) {
+                if (claimLazyModule(id)) {
+                    deferred.add(id);
+                }
             }
 
-            toDisable.forEach(k -> {
-                k.setStatus(LoadingStatus.DISABLED);
-                disabledModules.add(k.getId());
-            });
+            addEnabledDependents(toDisable, true);
         }
 
-        // Make sure we get a clean slate here.
-        getModules(ModuleStatusTristate.DISABLE).forEach(k -> discoveredModules.get(k).setPhase(ModulePhase.DISABLED));
-
-        // Construct them
-        for (String s : getModules(ModuleStatusTristate.ENABLE)) {
-            ModuleMetadata<? extends M> ms = discoveredModules.get(s);
+        // Dependents come after their dependencies in the discovered modules, so walk them backwards.
+        List<String> order = Lists.reverse(this.discoveredModules.keySet().stream().filter(toDisable::contains).collect(Collectors.toList()));
+        Map<String, Exception> errors = new ConcurrentHashMap<>();
+        Map<String, CompletableFuture<Void>> disabling = startDisabling(order, errors, ConcurrentHashMap.newKeySet());
+        List<String> disabled = new ArrayList<>();
+        for (String id : order) {
             try {
-                enabledModules.put(s, constructModule(ms));
-                ms.setPhase(ModulePhase.CONSTRUCTED);
-            } catch (Exception construction) {
-                construction.printStackTrace();
-                ms.setPhase(ModulePhase.ERRORED);
-                loggerProxy.error("The module " + ms.getModuleClass().getName() + " failed to construct.");
+                disabling.get(id).join();
+                disabled.add(id);
+            } catch (CompletionException e) {
+                // Either this module failed, or one that depends on it did, in which case it stays enabled.
+            }
+        }
 
-                if (failOnOneError) {
-                    currentPhase = ConstructionPhase.ERRORED;
-                    throw new QuickStartModuleLoaderException.Construction(ms.getModuleClass(), "The module " + ms.getModuleClass().getName() + " failed to construct.", construction);
-                }
+        try {
+            synchronized (this.configLock) {
+                config.save();
             }
+        } catch (IOException e) {
+            e.printStackTrace();
         }
 
-        if (enabledModules.isEmpty()) {
-            currentPhase = ConstructionPhase.ERRORED;
-            throw new QuickStartModuleLoaderException.Construction(null, "No modules were constructed.", null);
+        for (String id : disabled) {
+            detachConfig(id);
+            this.discoveredModules.get(id).setPhase(ModulePhase.DISABLED);
         }
 
-        enabledModules.forEach((k, v) -> {
-            if (this.disableableClass.isAssignableFrom(v.getClass())) {
-                this.disableableModules.put(k, this.disableableClass.cast(v));
-            }
+        this.enabledModules.keySet().removeAll(disabled);
+        if (releaseDisabledModules()) {
+            this.disableableModules.keySet().removeAll(disabled);
+            this.adapterClasses.keySet().removeAll(disabled);
+        }
+
+        publishSnapshot();
+
+        errors.keySet().forEach(id -> {
+            detachConfig(id);
+            this.discoveredModules.get(id).setPhase(ModulePhase.ERRORED);
         });
-        int size = enabledModules.size();
 
-        {
-            Iterator<Map.Entry<String, M>> im = enabledModules.entrySet().iterator();
-            while (im.hasNext()) {
-                Map.Entry<String, M> module = im.next();
-                try {
-                    module.getValue().checkExternalDependencies();
-                } catch (MissingDependencyException ex) {
-                    this.discoveredModules.get(module.getKey()).setStatus(LoadingStatus.DISABLED);
-                    this.discoveredModules.get(module.getKey()).setPhase(ModulePhase.DISABLED);
-                    this.loggerProxy.warn("Module " + module.getKey() + " can not be enabled because an external dependency could not be satisfied.");
-                    this.loggerProxy.warn("Message was: " + ex.getMessage());
-                    im.remove();
-                }
-            }
+        for (String id : deferred) {
+            this.discoveredModules.get(id).setPhase(ModulePhase.DISABLED);
         }
 
-        while (size != enabledModules.size()) {
-            // We might need to disable modules.
-            size = enabledModules.size();
-            Iterator<Map.Entry<String, M>> im = enabledModules.entrySet().iterator();
-            while (im.hasNext()) {
-                Map.Entry<String, M> module = im.next();
-                if (!dependenciesSatisfied(this.discoveredModules.get(module.getKey()), getModules(ModuleStatusTristate.ENABLE))) {
-                    im.remove();
-                    this.loggerProxy.warn("Module " + module.getKey() + " can not be enabled because an external dependency on a module it "
-                            + "depends on could not be satisfied.");
-                    this.discoveredModules.get(module.getKey()).setStatus(LoadingStatus.DISABLED);
+        resetDisableableList();
+        deferred.forEach(id -> fireDisabled(this.discoveredModules.get(id)));
+        disabled.forEach(id -> fireDisabled(this.discoveredModules.get(id)));
+        errors.forEach((id, e) -> fireErrored(this.discoveredModules.get(id), e));
+
+        if (!errors.isEmpty()) {
+            Map.Entry<String, Exception> error = errors.entrySet().iterator().next();
+            throw new QuickStartModuleLoaderException.Disabling(
+                    this.discoveredModules.get(error.getKey()).getModuleClass(),
+                    "Could not disable the module " + error.getKey(),
+                    error.getValue()
+            );
+        }
+    }
+
+    /**
+     * Disables every enabled module, and shuts the holder down. Once this has been called, the holder can no longer
+     * be used.
+     *
+     * <p>
+     *     Modules are disabled in reverse dependency order, with modules that do not depend on each other disabled
+     *     concurrently, as in {@link #disableModules(Set, boolean)}. The disable phases of the
+     *     {@link PhasedModuleEnabler} only apply to modules of type {@link D}, other modules are simply released.
+     * </p>
+     *
+     * <p>
+     *     The timeout applies to the whole shutdown. Modules that have not been disabled when it runs out are marked as
+     *     errored, and modules that have not started disabling by then will not be. Disable phases that are still
+     *     running are not interrupted, so those modules keep their instance and config adapter in the holder until it
+     *     is discarded, rather than having them removed from under them. Failures are logged rather than thrown, so
+     *     that one module cannot stop the rest from shutting down. The system config is saved once, at the end.
+     * </p>
+     *
+     * @param timeout The time to allow for all modules to be disabled.
+     * @return <code>true</code> if every module was disabled cleanly within the timeout.
+     */
+    public final boolean shutdown(Duration timeout) {
+        Preconditions.checkState(currentPhase == ConstructionPhase.ENABLED);
+        Preconditions.checkArgument(!timeout.isNegative(), "timeout must not be negative");
+        // Lazy modules that were never used have nothing to shut down. Any that are being activated are waited for.
+        for (String id : new ArrayList<>(this.deferredModules)) {
+            claimLazyModule(id);
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        List<String> order = Lists.reverse(this.discoveredModules.entrySet().stream()
+                .filter(x -> x.getValue().getPhase() == ModulePhase.ENABLED)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList()));
+        Map<String, Exception> errors = new ConcurrentHashMap<>();
+        Set<String> started = ConcurrentHashMap.newKeySet();
+        Map<String, CompletableFuture<Void>> disabling = startDisabling(order, errors, started);
+
+        List<String> disabled = new ArrayList<>();
+        Set<String> stillRunning = new HashSet<>();
+        boolean interrupted = false;
+        for (String id : order) {
+            CompletableFuture<Void> future = disabling.get(id);
+            if (!interrupted) {
+                try {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | TimeoutException e) {
+                    // Handled below.
+                }
+            }
+
+            if (!future.isDone()) {
+                future.cancel(false);
+                if (!started.add(id)) {
+                    // Its disable phases are still running, and still need everything the module has.
+                    stillRunning.add(id);
+                }
+
+                errors.putIfAbsent(id, new TimeoutException("The module " + id + " did not shut down in time."));
+            } else if (future.isCompletedExceptionally()) {
+                errors.putIfAbsent(id, new IllegalStateException("The module " + id + " was not disabled, as a module that depends on it failed."));
+            } else {
+                disabled.add(id);
+            }
+        }
+
+        currentPhase = ConstructionPhase.SHUTDOWN;
+        try {
+            synchronized (this.configLock) {
+                config.save();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        for (String id : order) {
+            this.discoveredModules.get(id).setPhase(errors.containsKey(id) ? ModulePhase.ERRORED : ModulePhase.DISABLED);
+            if (!stillRunning.contains(id)) {
+                detachConfig(id);
+            }
+        }
+
+        this.enabledModules.keySet().retainAll(stillRunning);
+        this.enabledDisableableModules.clear();
+        this.disableableModules.keySet().retainAll(stillRunning);
+        this.adapterClasses.keySet().retainAll(stillRunning);
+        publishSnapshot();
+
+        disabled.forEach(id -> fireDisabled(this.discoveredModules.get(id)));
+        errors.forEach((id, e) -> {
+            loggerProxy.error(() -> "The module " + id + " failed to shut down: " + e.getMessage());
+            fireErrored(this.discoveredModules.get(id), e);
+        });
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        return errors.isEmpty();
+    }
+
+    /**
+     * Runs the disable phases for the given modules, in the given order. Each module waits for the modules before it
+     * that depend on it, or soft depend on it, and otherwise runs concurrently.
+     *
+     * @param order The modules, with dependents before their dependencies.
+     * @param errors Receives the failure of any module that fails to disable.
+     * @param started Receives each module as its disable phases start. A module that is added to it by anything else
+     *                first is not disabled.
+     * @return The tasks disabling each module. A task fails if its module, or a module that depends on it, failed.
+     */
+    private Map<String, CompletableFuture<Void>> startDisabling(List<String> order, Map<String, Exception> errors, Set<String> started) {
+        Map<String, CompletableFuture<Void>> disabling = Maps.newLinkedHashMap();
+        for (String id : order) {
+            M module = this.enabledModules.get(id);
+            CompletableFuture<?>[] waitFor = disabling.entrySet().stream()
+                    .filter(x -> dependsOn(this.discoveredModules.get(x.getKey()), id))
+                    .map(Map.Entry::getValue)
+                    .toArray(CompletableFuture[]::new);
+            disabling.put(id, CompletableFuture.allOf(waitFor).thenRunAsync(() -> {
+                if (!started.add(id) || !this.disableableClass.isInstance(module)) {
+                    // Only disableable modules have disable phases.
+                    return;
+                }
+
+                try {
+                    for (String phase : this.enabler.getDisablePhases()) {
+                        this.enabler.startDisablePhase(phase, this, this.disableableClass.cast(module));
+                    }
+                } catch (Exception e) {
+                    errors.put(id, e);
+                    throw new CompletionException(e);
+                }
+            }, getExecutor()));
+        }
+
+        return disabling;
+    }
+
+    /**
+     * Adds the enabled modules that depend on the given modules to them, until no more need to be added.
+     *
+     * @param toDisable The modules being disabled.
+     * @param cascade Whether dependents may be added. If not, finding any is an error.
+     * @throws UndisableableModuleException if there are dependents that cannot be disabled.
+     */
+    private void addEnabledDependents(Set<String> toDisable, boolean cascade) throws UndisableableModuleException, NoModuleException {
+        Set<String> dependents;
+        while (!(dependents = getEnabledDependents(toDisable)).isEmpty()) {
+            if (!cascade) {
+                throw new UndisableableModuleException(String.join(", ", dependents),
+                        "The modules " + String.join(", ", dependents) + " depend on modules that are being disabled.");
+            }
+
+            for (String id : dependents) {
+                checkRuntimeDisableable(id);
+            }
+
+            toDisable.addAll(dependents);
+        }
+    }
+
+    private static boolean dependsOn(ModuleMetadata<?> ms, String id) {
+        return Stream.concat(ms.getDependencies().stream(), ms.getSoftDependencies().stream()).anyMatch(id::equalsIgnoreCase);
+    }
+
+    private void checkRuntimeDisableable(String id) throws NoModuleException, UndisableableModuleException {
+        ModuleMetadata<? extends M> ms = this.discoveredModules.get(id);
+        if (ms == null) {
+            throw new NoModuleException(id);
+        }
+
+        if (ms.getPhase() != ModulePhase.ENABLED || !ms.isRuntimeAlterable() || !this.disableableModules.containsKey(id)) {
+            throw new UndisableableModuleException(id, "Cannot disable this module at runtime!");
+        }
+    }
+
+    private Set<String> getEnabledDependents(Set<String> modules) {
+        return this.discoveredModules.entrySet().stream()
+                .filter(x -> x.getValue().getPhase() == ModulePhase.ENABLED && !modules.contains(x.getKey()))
+                .filter(x -> x.getValue().getDependencies().stream().map(String::toLowerCase).anyMatch(modules::contains))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Gets the lazy modules that are still waiting to be used, and depend on any of the given modules, directly or
+     * through other such lazy modules.
+     *
+     * @param modules The modules.
+     * @return The lazy modules.
+     */
+    private Set<String> getDeferredDependents(Set<String> modules) {
+        Set<String> dependents = new HashSet<>();
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (String id : this.deferredModules) {
+                if (!dependents.contains(id) && this.discoveredModules.get(id).getDependencies().stream()
+                        .map(String::toLowerCase)
+                        .anyMatch(x -> modules.contains(x) || dependents.contains(x))) {
+                    found = dependents.add(id);
+                }
+            }
+        }
+
+        return dependents;
+    }
+
+    /**
+     * Replaces an enabled, runtime disableable module with a new instance, such as one built from a new version of the
+     * module's classes, without the module being unavailable in between.
+     *
+     * <p>
+     *     The swap happens in this order:
+     * </p>
+     * <ol>
+     *     <li>If both instances implement {@link ModuleStateHandoff}, the state of the current instance is exported
+     *     and imported into the replacement.</li>
+     *     <li>The replacement's config adapter takes the place of the current one, and the replacement is taken
+     *     through the enable phases. The current instance is still enabled while this happens.</li>
+     *     <li>The replacement takes the place of the current instance. {@link #getModule(String)} returns either the
+     *     old or the new instance, never nothing.</li>
+     *     <li>The current instance is taken through the disable phases.</li>
+     * </ol>
+     *
+     * <p>
+     *     Changes to the current instance's state after it has been exported are not handed over. If the replacement
+     *     cannot be enabled, it is taken through the disable phases, and the current instance remains in place.
+     * </p>
+     *
+     * @param moduleName The ID of the module to swap.
+     * @param replacement The new instance, which must not be enabled yet.
+     * @throws UndisableableModuleException if the module cannot be swapped at runtime.
+     * @throws QuickStartModuleLoaderException.Enabling if the replacement could not be enabled. The current instance
+     *      remains in place.
+     * @throws QuickStartModuleLoaderException.Disabling if the old instance could not be disabled. The replacement
+     *      remains in place.
+     */
+    public final void hotSwapModule(String moduleName, D replacement) throws UndisableableModuleException, QuickStartModuleLoaderException {
+        Preconditions.checkState(currentPhase == ConstructionPhase.ENABLED);
+        Preconditions.checkNotNull(replacement);
+        if (!this.allowDisabling) {
+            throw new UndisableableModuleException(moduleName.toLowerCase(), "Cannot swap modules in this holder.");
+        }
+
+        ModuleMetadata<? extends D> ms = this.enabledDisableableModules.get(moduleName);
+        if (ms == null || !ms.isRuntimeAlterable()) {
+            throw new UndisableableModuleException(moduleName.toLowerCase(), "Cannot swap this module at runtime!");
+        }
+
+        Preconditions.checkState(ms.getPhase() == ModulePhase.ENABLED, "Cannot swap this module as it is not enabled!");
+        D current = this.disableableModules.get(moduleName);
+        Preconditions.checkArgument(current != replacement, "The replacement must be a new instance.");
+
+        String id = moduleName.toLowerCase();
+        try {
+            replacement.checkExternalDependencies();
+            if (current instanceof ModuleStateHandoff && replacement instanceof ModuleStateHandoff) {
+                ((ModuleStateHandoff) replacement).importState(((ModuleStateHandoff) current).exportState());
+            }
+
+            detachConfig(id);
+            boolean entered = false;
+            try {
+                attachConfig(id, replacement);
+                synchronized (this.configLock) {
+                    config.saveAdapterDefaults(this.processDoNotMerge);
+                }
+
+                for (String phase : this.enabler.getEnablePhases()) {
+                    entered = true;
+                    firePhaseEntered(ms, phase);
+                    startEnablePhase(phase, ms, replacement);
+                }
+            } catch (Exception e) {
+                // Undo whatever the phases that did run set up, while the replacement still has its config.
+                if (entered) {
+                    for (String phase : this.enabler.getDisablePhases()) {
+                        try {
+                            this.enabler.startDisablePhase(phase, this, replacement);
+                        } catch (Exception ex) {
+                            e.addSuppressed(ex);
+                        }
+                    }
+                }
+
+                // The current instance is still enabled, so give it its config back.
+                detachConfig(id);
+                current.getConfigAdapter().ifPresent(x -> config.reattachConfigAdapter(id, x));
+                throw e;
+            }
+        } catch (Exception e) {
+            throw new QuickStartModuleLoaderException.Enabling(replacement.getClass(), "Could not enable the replacement for the module " + ms.getId(), e);
+        }
+
+        // The swap itself.
+        this.enabledModules.put(moduleName, replacement);
+        this.disableableModules.put(moduleName, replacement);
+        publishSnapshot();
+        fireEnabled(ms);
+
+        for (String phase : this.enabler.getDisablePhases()) {
+            try {
+                this.enabler.startDisablePhase(phase, this, current);
+            } catch (Exception e) {
+                throw new QuickStartModuleLoaderException.Disabling(
+                        current.getClass(),
+                        "The module " + ms.getId() + " was swapped, but the old instance could not be disabled",
+                        e
+                );
+            }
+        }
+    }
+
+    /**
+     * Gets whether modules that are disabled at runtime should be released, so that the instance, and any class
+     * loader that was created for it, can be garbage collected. If so, a new instance is constructed if the module
+     * is enabled again.
+     *
+     * @return <code>true</code> if disabled modules should be released.
+     */
+    protected boolean releaseDisabledModules() {
+        return false;
+    }
+
+    protected final Class<M> getBaseClass() {
+        return this.baseClass;
+    }
+
+    protected final Class<D> getDisableableClass() {
+        return this.disableableClass;
+    }
+
+    /**
+     * Get n enabled module given the ID.
+     *
+     * <p>If the module is lazy and has not been used yet, it is constructed and enabled first.</p>
+     *
+     * @param id The ID
+     * @param <T> The type, for duck typing
+     * @return The module, if it exists.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends M> Optional<T> getModule(String id) {
+        M module = this.enabledModules.get(id);
+        if (module == null && this.deferredModules.contains(id)) {
+            activateLazyModule(id);
+            module = this.enabledModules.get(id);
+        }
+
+        return Optional.ofNullable((T) module);
+    }
+
+    /**
+     * Gets a module, if it is enabled, by its {@link ModuleKey}. This does not hash the ID of the module, and does not
+     * allocate.
+     *
+     * <p>If the module is lazy and has not been used yet, it is constructed and enabled first.</p>
+     *
+     * @param key The {@link ModuleKey}.
+     * @param <T> The type of the module.
+     * @return The module, or {@code null} if it is not enabled.
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public final <T extends M> T getModule(ModuleKey<T> key) {
+        Preconditions.checkArgument(key.holder == this, "The key was issued by another module holder.");
+        M module = this.enabledModules.get(key.index);
+        if (module == null && !this.deferredModules.isEmpty() && this.deferredModules.contains(key.getId())) {
+            activateLazyModule(key.getId());
+            module = this.enabledModules.get(key.index);
+        }
+
+        return (T) module;
+    }
+
+    /**
+     * Gets the config adapter for a module by its {@link ModuleKey}, without hashing the ID of the module.
+     *
+     * @param key The {@link ModuleKey}.
+     * @param adapterClass The type of the adapter.
+     * @param <C> The type of the adapter.
+     * @return The adapter.
+     * @throws NoModuleException if the module has no adapter attached.
+     * @throws IncorrectAdapterTypeException if the adapter is not of the given type.
+     */
+    public final <C extends AbstractConfigAdapter<?>> C getConfigAdapterForModule(ModuleKey<?> key, Class<C> adapterClass)
+            throws NoModuleException, IncorrectAdapterTypeException {
+        Preconditions.checkArgument(key.holder == this, "The key was issued by another module holder.");
+        AbstractConfigAdapter<?> adapter = this.adapterSnapshot[key.index];
+        if (adapter == null) {
+            throw new NoModuleException(key.getId());
+        }
+
+        if (adapterClass.isInstance(adapter)) {
+            return adapterClass.cast(adapter);
+        }
+
+        throw new IncorrectAdapterTypeException();
+    }
+
+    private void createModuleKeys() {
+        this.metadataByIndex = this.discoveredModules.values().toArray(new ModuleMetadata<?>[0]);
+        ModuleKey<?>[] keysByIndex = new ModuleKey<?>[this.metadataByIndex.length];
+        int index = 0;
+        for (Map.Entry<String, ModuleMetadata<? extends M>> entry : this.discoveredModules.entrySet()) {
+            keysByIndex[index] = new ModuleKey<>(this, index, entry.getKey(), entry.getValue().getModuleClass());
+            this.moduleKeys.put(entry.getKey(), keysByIndex[index++]);
+        }
+
+        this.enabledModules.allocate(keysByIndex);
+        this.disableableModules.allocate(keysByIndex);
+        this.enabledDisableableModules.allocate(keysByIndex);
+        publishSnapshot();
+    }
+
+    /**
+     * Republishes the array of config adapters that {@link ModuleKey} lookups read from. This must be called after
+     * adapters are attached or detached. As every call reads the config afresh, the last call always sees every change
+     * made before it started.
+     */
+    private void publishSnapshot() {
+        synchronized (this.configLock) {
+            AbstractConfigAdapter<?>[] adapters = new AbstractConfigAdapter<?>[this.metadataByIndex.length];
+            Map<String, ? extends AbstractConfigAdapter<?>> attached = config.getAllConfigAdapters();
+            for (ModuleKey<?> key : this.moduleKeys.values()) {
+                adapters[key.index] = attached.get(key.getId());
+            }
+
+            this.adapterSnapshot = adapters;
+        }
+    }
+
+    /**
+     * Gets the lazy modules in the given set that are not needed by any of the modules that will be loaded now.
+     *
+     * @param toLoad The modules that are being loaded.
+     * @return The modules that can wait until they are first used.
+     */
+    private Set<String> getDeferrableModules(Set<String> toLoad) {
+        Set<String> deferrable = toLoad.stream().filter(x -> this.discoveredModules.get(x).isLazy()).collect(Collectors.toSet());
+        Deque<String> toVisit = toLoad.stream().filter(x -> !deferrable.contains(x)).collect(Collectors.toCollection(ArrayDeque::new));
+        while (!toVisit.isEmpty()) {
+            for (String dependency : this.discoveredModules.get(toVisit.pop()).getDependencies()) {
+                if (deferrable.remove(dependency.toLowerCase())) {
+                    toVisit.push(dependency.toLowerCase());
+                }
+            }
+        }
+
+        return deferrable;
+    }
+
+    /**
+     * Constructs and enables a lazy module, and any lazy modules it depends on, if that has not already happened. If
+     * another thread is activating the module, this waits for it to finish.
+     *
+     * <p>
+     *     While the holder is still enabling modules, a lazy module is only activated if every module it depends on
+     *     has been enabled, which is only the case for other lazy modules. Otherwise, it is left until it is used once
+     *     loading has finished. A module that is used by its own activation, on the same thread or on one that the
+     *     activation is waiting on, is not available until its activation has finished.
+     * </p>
+     *
+     * @param id The ID of the module.
+     */
+    private void activateLazyModule(String id) {
+        ConstructionPhase phase = this.currentPhase;
+        if ((phase != ConstructionPhase.ENABLING && phase != ConstructionPhase.ENABLED) || !this.deferredModules.contains(id)) {
+            return;
+        }
+
+        ModuleMetadata<? extends M> ms = this.discoveredModules.get(id);
+        ms.getDependencies().forEach(x -> activateLazyModule(x.toLowerCase()));
+        if (phase == ConstructionPhase.ENABLING && !ms.getDependencies().stream()
+                .allMatch(x -> this.discoveredModules.get(x.toLowerCase()).getPhase() == ModulePhase.ENABLED)) {
+            return;
+        }
+
+        LazyActivation activation = new LazyActivation();
+        LazyActivation existing = this.lazyActivations.putIfAbsent(id, activation);
+        if (existing != null) {
+            awaitActivation(existing);
+            return;
+        }
+
+        try {
+            for (String dependency : ms.getDependencies()) {
+                if (this.discoveredModules.get(dependency.toLowerCase()).getPhase() != ModulePhase.ENABLED) {
+                    throw new IllegalStateException("The dependency " + dependency + " is not enabled.");
+                }
+            }
+
+            M module = timedConstructModule(ms);
+            ms.setPhase(ModulePhase.CONSTRUCTED);
+            fireConstructed(ms);
+
+            module.checkExternalDependencies();
+            attachConfig(id, module);
+            synchronized (this.configLock) {
+                config.saveAdapterDefaults(this.processDoNotMerge);
+            }
+
+            for (String enablePhase : this.enabler.getEnablePhases()) {
+                firePhaseEntered(ms, enablePhase);
+                startEnablePhase(enablePhase, ms, module);
+            }
+
+            synchronized (this.configLock) {
+                if (this.disableableClass.isInstance(module)) {
+                    this.disableableModules.put(id, this.disableableClass.cast(module));
+                }
+
+                ms.setPhase(ModulePhase.ENABLED);
+                this.enabledModules.put(id, module);
+                if (ms.isRuntimeAlterable()) {
+                    @SuppressWarnings("unchecked")
+                    ModuleMetadata<? extends D> disableable = (ModuleMetadata<? extends D>) ms;
+                    this.enabledDisableableModules.put(id, disableable);
+                }
+
+                publishSnapshot();
+            }
+
+            fireEnabled(ms);
+        } catch (Exception e) {
+            ms.setPhase(ModulePhase.ERRORED);
+            fireErrored(ms, e);
+            loggerProxy.error(() -> "The lazy module " + id + " failed to activate: " + e.getMessage());
+        } finally {
+            this.deferredModules.remove(id);
+            activation.done.complete(null);
+        }
+    }
+
+    /**
+     * Stops a lazy module that has not been used from ever being activated. If it is being activated, this waits for
+     * that to finish instead.
+     *
+     * @param id The ID of the module.
+     * @return <code>true</code> if the module will never be activated, <code>false</code> if it has been.
+     */
+    private boolean claimLazyModule(String id) {
+        LazyActivation claim = new LazyActivation();
+        claim.done.complete(null);
+        LazyActivation existing = this.lazyActivations.putIfAbsent(id, claim);
+        if (existing == null) {
+            this.deferredModules.remove(id);
+            return true;
+        }
+
+        awaitActivation(existing);
+        return false;
+    }
+
+    /**
+     * Waits for another thread to finish activating a lazy module, unless that thread is, directly or through other
+     * activations, waiting on this one, in which case waiting would never end.
+     *
+     * @param activation The activation.
+     */
+    private void awaitActivation(LazyActivation activation) {
+        Thread current = Thread.currentThread();
+        this.awaitedActivations.put(current, activation);
+        try {
+            LazyActivation next = activation;
+            for (int i = 0; next != null && i <= this.awaitedActivations.size(); i++) {
+                if (next.owner == current) {
+                    return;
+                }
+
+                next = this.awaitedActivations.get(next.owner);
+            }
+
+            activation.done.join();
+        } finally {
+            this.awaitedActivations.remove(current);
+        }
+    }
+
+    protected M getModule(ModuleMetadata<? extends M> spec) throws Exception {
+        M module = this.enabledModules.get(spec.getId());
+        if (module == null) {
+            return constructModule(spec);
+        }
+
+        return module;
+    }
+
+    protected abstract M constructModule(ModuleMetadata<? extends M> spec) throws Exception;
+
+    private M timedConstructModule(ModuleMetadata<? extends M> spec) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return constructModule(spec);
+        } finally {
+            this.constructionTimings.put(spec.getId().toLowerCase(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gets the classes that were loaded while discovering modules, for the class list that is written in training mode.
+     * By default, these are the module classes.
+     *
+     * @return The classes.
+     */
+    protected Collection<Class<?>> getDiscoveredClasses() {
+        return this.discoveredModules.values().stream().map(ModuleMetadata::getModuleClass).collect(Collectors.toList());
+    }
+
+    /**
+     * Starts the module construction and enabling phase. This is the final phase for loading the modules.
+     *
+     * <p>
+     *     Once this method is called, modules can no longer be removed.
+     * </p>
+     *
+     * @param failOnOneError If set to <code>true</code>, one module failure will mark the whole loading sequence as failed.
+     *                       Otherwise, no modules being constructed will cause a failure.
+     *
+     * @throws QuickStartModuleLoaderException.Construction if the modules cannot be constructed.
+     * @throws QuickStartModuleLoaderException.Enabling if the modules cannot be enabled.
+     */
+    public void loadModules(boolean failOnOneError) throws QuickStartModuleLoaderException.Construction, QuickStartModuleLoaderException.Enabling {
+        Preconditions.checkArgument(currentPhase == ConstructionPhase.DISCOVERED);
+        currentPhase = ConstructionPhase.ENABLING;
+
+        Map<String, LoadingStatus> statuses = getModulesWithLoadingState();
+        if (this.discoveredFromPlan && statuses.equals(this.bootPlan.getStatuses())) {
+            // Nothing has changed since the plan was made, so the same modules will be disabled.
+            this.bootPlan.getCascade().forEach(k -> discoveredModules.get(k).setStatus(LoadingStatus.DISABLED));
+            this.cascade = this.bootPlan.getCascade();
+        } else {
+            this.cascade = cascadeDisabledModules();
+        }
+
+        this.statusesBeforeCascade = statuses;
+
+        // Make sure we get a clean slate here.
+        for (String k : getModules(ModuleStatusTristate.DISABLE)) {
+            ModuleMetadata<? extends M> ms = discoveredModules.get(k);
+            ms.setPhase(ModulePhase.DISABLED);
+            fireDisabled(ms);
+        }
+
+        // Lazy modules wait until they are first used.
+        Set<String> toLoad = getModules(ModuleStatusTristate.ENABLE);
+        this.deferredModules.addAll(getDeferrableModules(toLoad));
+
+        // Construct them
+        for (String s : toLoad) {
+            if (this.deferredModules.contains(s)) {
+                continue;
+            }
+
+            ModuleMetadata<? extends M> ms = discoveredModules.get(s);
+            try {
+                enabledModules.put(s, timedConstructModule(ms));
+                ms.setPhase(ModulePhase.CONSTRUCTED);
+                fireConstructed(ms);
+            } catch (Exception construction) {
+                construction.printStackTrace();
+                ms.setPhase(ModulePhase.ERRORED);
+                fireErrored(ms, construction);
+                loggerProxy.error(() -> "The module " + ms.getModuleClass().getName() + " failed to construct.");
+
+                if (failOnOneError) {
+                    currentPhase = ConstructionPhase.ERRORED;
+                    throw new QuickStartModuleLoaderException.Construction(ms.getModuleClass(), "The module " + ms.getModuleClass().getName() + " failed to construct.", construction);
+                }
+            }
+        }
+
+        if (enabledModules.isEmpty() && this.deferredModules.isEmpty()) {
+            currentPhase = ConstructionPhase.ERRORED;
+            throw new QuickStartModuleLoaderException.Construction(null, "No modules were constructed.", null);
+        }
+
+        enabledModules.forEach((k, v) -> {
+            if (this.disableableClass.isAssignableFrom(v.getClass())) {
+                this.disableableModules.put(k, this.disableableClass.cast(v));
+            }
+        });
+        int size = enabledModules.size();
+
+        {
+            Iterator<Map.Entry<String, M>> im = enabledModules.entrySet().iterator();
+            while (im.hasNext()) {
+                Map.Entry<String, M> module = im.next();
+                try {
+                    module.getValue().checkExternalDependencies();
+                } catch (MissingDependencyException ex) {
+                    this.discoveredModules.get(module.getKey()).setStatus(LoadingStatus.DISABLED);
+                    this.discoveredModules.get(module.getKey()).setPhase(ModulePhase.DISABLED);
+                    fireDisabled(this.discoveredModules.get(module.getKey()));
+                    this.loggerProxy.warn(() -> "Module " + module.getKey() + " can not be enabled because an external dependency could not be satisfied.");
+                    this.loggerProxy.warn(() -> "Message was: " + ex.getMessage());
+                    im.remove();
+                }
+            }
+        }
+
+        while (size != enabledModules.size()) {
+            // We might need to disable modules.
+            size = enabledModules.size();
+            Iterator<Map.Entry<String, M>> im = enabledModules.entrySet().iterator();
+            while (im.hasNext()) {
+                Map.Entry<String, M> module = im.next();
+                if (!dependenciesSatisfied(this.discoveredModules.get(module.getKey()), getModules(ModuleStatusTristate.ENABLE))) {
+                    im.remove();
+                    this.loggerProxy.warn(() -> "Module " + module.getKey() + " can not be enabled because an external dependency on a module it "
+                            + "depends on could not be satisfied.");
+                    this.discoveredModules.get(module.getKey()).setStatus(LoadingStatus.DISABLED);
                     this.discoveredModules.get(module.getKey()).setPhase(ModulePhase.DISABLED);
+                    fireDisabled(this.discoveredModules.get(module.getKey()));
                 }
             }
 
@@ -558,68 +1593,351 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
             }
         }
 
+        // Modules can look each other up from their enable phases.
+        publishSnapshot();
+
         // Enter Enable phase.
         Set<String> phases = this.enabler.getEnablePhases();
+        Map<String, Long> criticalPaths = this.phaseExecutor == null ? ImmutableMap.of() : getCriticalPaths(enabledModules.keySet());
 
         for (String phase : phases) {
-            loggerProxy.info(String.format("Starting phase: %s", phase));
+            loggerProxy.info(() -> String.format("Starting phase: %s", phase));
             try {
                 this.enabler.startEnablePrePhase(phase, this);
             } catch (Exception ex) {
                 this.currentPhase = ConstructionPhase.ERRORED;
                 throw new RuntimeException("Could not load modules, phase " + phase + " failed to load.", ex);
             }
+            if (this.phaseExecutor != null) {
+                runEnablePhaseConcurrently(phase, failOnOneError, this.phaseExecutor, criticalPaths);
+                continue;
+            }
+
             Iterator<String> is = enabledModules.keySet().iterator();
             while (is.hasNext()) {
                 String i = is.next();
                 ModuleMetadata<? extends M> ms = discoveredModules.get(i);
 
-                // If the module is errored, then we do not continue.
-                if (ms.getPhase() == ModulePhase.ERRORED) {
+                // If the module is errored, then we do not continue. Lazy modules that were used by modules being
+                // loaded have already been enabled.
+                if (ms.getPhase() == ModulePhase.ERRORED || ms.getPhase() == ModulePhase.ENABLED) {
                     continue;
                 }
 
                 try {
                     M m = enabledModules.get(i);
-                    this.enabler.startEnablePhase(phase, this, m);
+                    firePhaseEntered(ms, phase);
+                    startEnablePhase(phase, ms, m);
                 } catch (Exception construction) {
                     construction.printStackTrace();
                     is.remove();
 
                     ms.setPhase(ModulePhase.ERRORED);
-                    loggerProxy.error("The module " + ms.getModuleClass().getName() + " failed to enable.");
+                    fireErrored(ms, construction);
+                    loggerProxy.error(() -> "The module " + ms.getModuleClass().getName() + " failed to enable.");
 
-                    if (failOnOneError) {
+                    if (failOnOneError || isAbort(construction)) {
+                        currentPhase = ConstructionPhase.ERRORED;
+                        throw new QuickStartModuleLoaderException.Enabling(ms.getModuleClass(), "The module " + ms.getModuleClass().getName() + " failed to enable.", construction);
+                    }
+                }
+            }
+        }
+
+        if (enabledModules.isEmpty() && this.deferredModules.isEmpty()) {
+            currentPhase = ConstructionPhase.ERRORED;
+            throw new QuickStartModuleLoaderException.Enabling(null, "No modules were enabled.", null);
+        }
+
+        // Modules in this list did not fail.
+        for (String k : enabledModules.keySet()) {
+            ModuleMetadata<? extends M> ms = this.discoveredModules.get(k);
+            if (ms.getPhase() != ModulePhase.ENABLED) {
+                ms.setPhase(ModulePhase.ENABLED);
+                fireEnabled(ms);
+            }
+        }
+
+        resetDisableableList();
+        publishSnapshot();
+        try {
+            synchronized (this.configLock) {
+                config.saveAdapterDefaults(this.processDoNotMerge);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        currentPhase = ConstructionPhase.ENABLED;
+        if (this.classListFile != null) {
+            writeClassList(this.classListFile);
+        }
+    }
+
+    private void writeClassList(Path file) {
+        Set<Class<?>> classes = new LinkedHashSet<>(getDiscoveredClasses());
+        enabledModules.values().forEach(x -> classes.add(x.getClass()));
+        classes.addAll(this.adapterClasses.values());
+        try {
+            int written = ClassDataSharing.writeClassList(file, classes);
+            loggerProxy.info(() -> MessageFormat.format("Wrote {0} classes to the class list {1}.", written, file));
+        } catch (IOException e) {
+            loggerProxy.warn(() -> "Could not write the class list " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gets whether the JVM is using an application class data sharing archive, such as one built from a class list
+     * written by {@link Builder#setClassListFile(Path)}.
+     *
+     * @return <code>true</code> if so.
+     */
+    public final boolean isClassDataSharingArchiveInUse() {
+        return ClassDataSharing.isArchiveInUse();
+    }
+
+    /**
+     * Runs an enable phase for every enabled module on the given {@link Executor}. Each module waits for its
+     * dependencies to finish the phase, and otherwise runs concurrently. When more modules are ready than the executor
+     * can run, those with the longest critical path are started first. If {@code failOnOneError} is set, the first
+     * failure stops modules that have not started yet from starting, and interrupts the threads of those that have.
+     * This waits for them to finish either way.
+     *
+     * @param phase The phase.
+     * @param failOnOneError Whether one failure fails the whole load.
+     * @param executor The {@link Executor} to run the modules on.
+     * @param criticalPaths The critical path of each module, from {@link #getCriticalPaths(Set)}.
+     * @throws QuickStartModuleLoaderException.Enabling if a module failed, and {@code failOnOneError} is set.
+     */
+    private void runEnablePhaseConcurrently(String phase, boolean failOnOneError, Executor executor, Map<String, Long> criticalPaths)
+            throws QuickStartModuleLoaderException.Enabling {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Map<String, Exception> errors = new ConcurrentHashMap<>();
+
+        // The thread running each module, by module ID. Threads are only interrupted, and only leave, while holding it,
+        // so that a thread is never interrupted once it has moved on to something else.
+        Map<String, Thread> threads = Maps.newHashMap();
+        Map<String, CompletableFuture<Void>> running = Maps.newLinkedHashMap();
+        Map<String, Runnable> tasks = Maps.newHashMap();
+        List<String> roots = Lists.newArrayList();
+        PriorityBlockingQueue<String> ready = new PriorityBlockingQueue<>(11,
+                Comparator.comparing((String x) -> criticalPaths.getOrDefault(x, 0L)).reversed());
+
+        // Each dispatch runs whichever ready module is most urgent when it gets a thread, not the one that queued it.
+        Runnable dispatch = () -> tasks.get(ready.remove()).run();
+        for (Map.Entry<String, ModuleMetadata<? extends M>> entry : this.discoveredModules.entrySet()) {
+            String id = entry.getKey();
+            ModuleMetadata<? extends M> ms = entry.getValue();
+            M module = this.enabledModules.get(id);
+            if (module == null || ms.getPhase() == ModulePhase.ERRORED || ms.getPhase() == ModulePhase.ENABLED) {
+                continue;
+            }
+
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            tasks.put(id, () -> {
+                try {
+                    synchronized (threads) {
+                        if (cancelled.get()) {
+                            return;
+                        }
+
+                        threads.put(id, Thread.currentThread());
+                    }
+
+                    firePhaseEntered(ms, phase);
+                    startEnablePhase(phase, ms, module);
+                } catch (Exception e) {
+                    errors.put(id, e);
+                    if (failOnOneError || isAbort(e)) {
+                        synchronized (threads) {
+                            cancelled.set(true);
+                            threads.values().stream().filter(x -> x != Thread.currentThread()).forEach(Thread::interrupt);
+                        }
+                    }
+                } finally {
+                    synchronized (threads) {
+                        // Any interrupt is ours, and must not carry over to whatever the thread runs next.
+                        if (threads.remove(id) != null && cancelled.get()) {
+                            Thread.interrupted();
+                        }
+                    }
+
+                    done.complete(null);
+                }
+            });
+
+            CompletableFuture<?>[] dependencies = Stream.concat(ms.getDependencies().stream(), ms.getSoftDependencies().stream())
+                    .map(x -> running.get(x.toLowerCase()))
+                    .filter(Objects::nonNull)
+                    .toArray(CompletableFuture[]::new);
+            if (dependencies.length == 0) {
+                roots.add(id);
+            } else {
+                CompletableFuture.allOf(dependencies).thenRun(() -> {
+                    ready.add(id);
+                    executor.execute(dispatch);
+                });
+            }
+
+            running.put(id, done);
+        }
+
+        // Queue every root before any of them can be taken, so that the first to run is the most urgent.
+        ready.addAll(roots);
+        roots.forEach(x -> executor.execute(dispatch));
+
+        // Nothing is left running once this returns.
+        running.values().forEach(CompletableFuture::join);
+
+        Exception first = null;
+        for (String id : running.keySet()) {
+            Exception e = errors.get(id);
+            if (e != null) {
+                ModuleMetadata<? extends M> ms = this.discoveredModules.get(id);
+                e.printStackTrace();
+                this.enabledModules.remove(id);
+                ms.setPhase(ModulePhase.ERRORED);
+                fireErrored(ms, e);
+                loggerProxy.error(() -> "The module " + ms.getModuleClass().getName() + " failed to enable.");
+                if (first == null) {
+                    first = e;
+                    if (failOnOneError || isAbort(e)) {
                         currentPhase = ConstructionPhase.ERRORED;
-                        throw new QuickStartModuleLoaderException.Enabling(ms.getModuleClass(), "The module " + ms.getModuleClass().getName() + " failed to enable.", construction);
+                        throw new QuickStartModuleLoaderException.Enabling(ms.getModuleClass(), "The module " + ms.getModuleClass().getName() + " failed to enable.", e);
                     }
                 }
             }
         }
+    }
 
-        if (enabledModules.isEmpty()) {
-            currentPhase = ConstructionPhase.ERRORED;
-            throw new QuickStartModuleLoaderException.Enabling(null, "No modules were enabled.", null);
+    /**
+     * Gets the critical path of each of the given modules: its own cost, plus the most expensive chain of the given
+     * modules that depend on it. Costs are taken from the timings in the {@link BootPlan}, if there is one, and from
+     * {@link ModuleData#cost()} otherwise.
+     *
+     * @param ids The IDs of the modules that are being enabled.
+     * @return The critical paths, in nanoseconds, by module ID.
+     */
+    private Map<String, Long> getCriticalPaths(Set<String> ids) {
+        Map<String, Duration> recorded = this.bootPlan == null ? ImmutableMap.of() : this.bootPlan.getTimings();
+        List<String> order = this.discoveredModules.keySet().stream().filter(ids::contains).collect(Collectors.toList());
+        Map<String, Long> paths = Maps.newHashMap();
+
+        // Dependents come after their dependencies, so walking backwards sees every dependent first.
+        for (String id : Lists.reverse(order)) {
+            ModuleMetadata<? extends M> ms = this.discoveredModules.get(id);
+            long longest = 0;
+            for (Map.Entry<String, Long> dependent : paths.entrySet()) {
+                ModuleMetadata<? extends M> dms = this.discoveredModules.get(dependent.getKey());
+                if (Stream.concat(dms.getDependencies().stream(), dms.getSoftDependencies().stream()).anyMatch(id::equalsIgnoreCase)) {
+                    longest = Math.max(longest, dependent.getValue());
+                }
+            }
+
+            Duration timing = recorded.get(id);
+            long cost = timing == null ? TimeUnit.MILLISECONDS.toNanos(ms.getCost()) : timing.toNanos();
+            paths.put(id, cost + longest);
         }
 
-        // Modules in this list did not fail.
-        enabledModules.forEach((k, v) -> this.discoveredModules.get(k).setPhase(ModulePhase.ENABLED));
-        resetDisableableList();
+        return paths;
+    }
+
+    /**
+     * Runs an enable phase for a module, under the watchdog if the module has a deadline for the phase.
+     *
+     * @param phase The phase.
+     * @param ms The {@link ModuleMetadata} of the module.
+     * @param module The module.
+     * @throws QuickStartModuleLoaderException.Timeout if the module overran its deadline, and the policy does not
+     *                                                  allow it to keep running.
+     * @throws Exception if the phase failed.
+     */
+    private void startEnablePhase(String phase, ModuleMetadata<? extends M> ms, M module) throws Exception {
+        Duration deadline = this.enabler.getDeadline(phase, ms.getId());
+        long start = System.nanoTime();
         try {
-            config.saveAdapterDefaults(this.processDoNotMerge);
-        } catch (IOException e) {
-            e.printStackTrace();
+            if (deadline == null) {
+                this.enabler.startEnablePhase(phase, this, module);
+            } else {
+                PhaseWatchdog.run(() -> {
+                    this.enabler.startEnablePhase(phase, this, module);
+                    return null;
+                }, "Module " + ms.getId() + " in phase " + phase, deadline, this.enabler.getWatchdogPolicy(), this.loggerProxy);
+            }
+        } catch (TimeoutException e) {
+            throw new QuickStartModuleLoaderException.Timeout(ms.getModuleClass(), e.getMessage(), e);
+        } finally {
+            this.enableTimings.merge(ms.getId().toLowerCase(), System.nanoTime() - start, Long::sum);
         }
+    }
 
-        currentPhase = ConstructionPhase.ENABLED;
+    /**
+     * Gets whether a failure to enable a module should stop loading, whatever the module holder has been told.
+     *
+     * @param e The failure.
+     * @return {@code true} if so.
+     */
+    private boolean isAbort(Exception e) {
+        return e instanceof QuickStartModuleLoaderException.Timeout && this.enabler.getWatchdogPolicy() == WatchdogPolicy.ABORT;
+    }
+
+    /**
+     * Gets the {@link Executor} to run concurrent work on.
+     *
+     * @return The {@link Executor}.
+     */
+    private Executor getExecutor() {
+        return this.phaseExecutor == null ? ForkJoinPool.commonPool() : this.phaseExecutor;
+    }
+
+    /**
+     * Disables any modules that depend on a disabled module, until no more modules need to be disabled.
+     *
+     * @return The IDs of the modules that were disabled.
+     * @throws QuickStartModuleLoaderException.Construction if a mandatory module would be disabled.
+     */
+    private Set<String> cascadeDisabledModules() throws QuickStartModuleLoaderException.Construction {
+        Set<String> cascade = new HashSet<>();
+
+        // Get the modules that are being disabled and mark them as such.
+        Set<String> disabledModules = getModules(ModuleStatusTristate.DISABLE);
+        while (!disabledModules.isEmpty()) {
+            // Find any modules that have dependencies on disabled modules, and disable them.
+            List<ModuleMetadata<? extends M>> toDisable = getModules(ModuleStatusTristate.ENABLE)
+                    .stream()
+                    .map(discoveredModules::get)
+                    .filter(x -> x.getDependencies().stream().map(String::toLowerCase).anyMatch(disabledModules::contains))
+                    .collect(Collectors.toList());
+            if (toDisable.isEmpty()) {
+                break;
+            }
+
+            if (toDisable.stream().anyMatch(ModuleMetadata::isMandatory)) {
+                String s = toDisable.stream().filter(ModuleMetadata::isMandatory).map(ModuleMetadata::getId).collect(Collectors.joining(", "));
+                Class<? extends M> m = toDisable.stream().filter(ModuleMetadata::isMandatory).findFirst().get().getModuleClass();
+                throw new QuickStartModuleLoaderException.Construction(m,
+                        "Tried to disable mandatory module",
+                        new IllegalStateException("Dependency failure, tried to disable a mandatory module (" + s + ")"));
+            }
+
+            toDisable.forEach(k -> {
+                k.setStatus(LoadingStatus.DISABLED);
+                disabledModules.add(k.getId().toLowerCase());
+                cascade.add(k.getId().toLowerCase());
+            });
+        }
+
+        return cascade;
     }
 
     private void resetDisableableList() {
-        this.enabledDisableableModules.clear();
-        this.discoveredModules.values().stream()
-                .filter(x -> x.getPhase() == ModulePhase.ENABLED)
-                .filter(ModuleMetadata::isRuntimeAlterable)
-                .forEach(x -> this.enabledDisableableModules.put(x.getId(), (ModuleMetadata<? extends D>) x));
+        synchronized (this.configLock) {
+            this.enabledDisableableModules.clear();
+            this.discoveredModules.values().stream()
+                    .filter(x -> x.getPhase() == ModulePhase.ENABLED)
+                    .filter(ModuleMetadata::isRuntimeAlterable)
+                    .forEach(x -> this.enabledDisableableModules.put(x.getId(), (ModuleMetadata<? extends D>) x));
+        }
     }
 
     /**
@@ -632,62 +1950,235 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         runtimeEnable(ImmutableSet.of(name));
     }
 
+    /**
+     * Enables a set of {@link D}s after the construction has completed.
+     *
+     * <p>
+     *     Any dependencies of the requested modules that are not enabled are enabled with them, unless they are
+     *     disabled in the configuration, in which case nothing is enabled. The modules are constructed in parallel,
+     *     their configuration is attached and saved in one go, and then they are enabled in dependency order.
+     * </p>
+     *
+     * <p>
+     *     If a module fails, the modules that were enabled before it, including dependencies that were only enabled
+     *     because they were needed, remain enabled. The failed module and the modules in the batch that depend on it
+     *     are marked as errored. The rest of the batch goes back to the phase it was in. None of the modules that were
+     *     not enabled keep their config adapters.
+     * </p>
+     *
+     * @param name The names of the modules to load.
+     * @throws Exception thrown if the modules are not loadable for any reason, including if one is already enabled, or
+     *      a dependency cannot be enabled at runtime, or is disabled in the configuration.
+     */
     public void runtimeEnable(Set<String> name) throws Exception {
+        runtimeEnable(name, false);
+    }
+
+    /**
+     * Enables a set of {@link D}s after the construction has completed, as {@link #runtimeEnable(Set)} does.
+     *
+     * @param name The names of the modules to load.
+     * @param enableDisabledDependencies If <code>true</code>, dependencies that are disabled in the configuration are
+     *                                   enabled with the requested modules. Otherwise, they cause this method to fail
+     *                                   before anything is enabled.
+     * @throws Exception thrown if the modules are not loadable for any reason, including if one is already enabled, or
+     *      a dependency cannot be enabled.
+     */
+    public void runtimeEnable(Set<String> name, boolean enableDisabledDependencies) throws Exception {
         Preconditions.checkState(this.currentPhase == ConstructionPhase.ENABLED);
 
         Set<String> modulesToCheck = name.stream().map(String::toLowerCase).collect(Collectors.toSet());
-
-        Set<ModuleMetadata<? extends D>> containers = new HashSet<>();
         for (String moduleName : modulesToCheck) {
             Preconditions.checkState(!isModuleLoaded(moduleName), "Module is already loaded!");
+        }
+
+        // Work out everything that has to come up with the requested modules.
+        Set<String> closure = new HashSet<>();
+        Deque<String> toVisit = new ArrayDeque<>(modulesToCheck);
+        while (!toVisit.isEmpty()) {
+            String moduleName = toVisit.pop();
+            if (this.deferredModules.contains(moduleName)) {
+                activateLazyModule(moduleName);
+                Preconditions.checkState(isModuleLoaded(moduleName), "Module " + moduleName + " could not be activated.");
+            }
+
+            if (closure.contains(moduleName) || isModuleLoaded(moduleName)) {
+                continue;
+            }
+
             ModuleMetadata<? extends M> ms = discoveredModules.get(moduleName);
+            if (ms == null) {
+                throw new NoModuleException(moduleName);
+            }
+
             Preconditions.checkState(this.disableableClass.isAssignableFrom(ms.getModuleClass()),
-                    "Module " + name + " cannot be enabled at runtime!");
+                    "Module " + moduleName + " cannot be enabled at runtime!");
+            Preconditions.checkState(enableDisabledDependencies || modulesToCheck.contains(moduleName) || ms.getStatus() != LoadingStatus.DISABLED,
+                    "Module " + moduleName + " is needed by the modules being enabled, but is disabled in the configuration.");
+            closure.add(moduleName);
+            ms.getDependencies().forEach(x -> toVisit.push(x.toLowerCase()));
+        }
 
-            //noinspection unchecked
-            containers.add((ModuleMetadata<? extends D>) ms);
+        // The discovered modules are already in dependency order.
+        List<String> ordered = this.discoveredModules.keySet().stream().filter(closure::contains).collect(Collectors.toList());
+        Map<String, ModulePhase> previousPhases = Maps.newHashMap();
+        ordered.forEach(x -> previousPhases.put(x, this.discoveredModules.get(x).getPhase()));
+
+        // Construction
+        try {
+            constructForRuntimeEnable(ordered);
+        } catch (Exception e) {
+            Set<String> failed = ordered.stream()
+                    .filter(x -> this.discoveredModules.get(x).getPhase() == ModulePhase.ERRORED)
+                    .collect(Collectors.toSet());
+            undoRuntimeEnable(ordered, previousPhases, failed, e);
+            throw e;
         }
 
-        for (ModuleMetadata<? extends D> ms : containers) {
+        // Attach the configuration for the whole batch, then save it once.
+        for (String s : ordered) {
+            // Clears out the adapter of a module that errored on an earlier attempt.
+            detachConfig(s);
             try {
-                // Construction
-                D module = this.disableableModules.get(ms.getId());
-                if (module == null) {
-                    module = (D) constructModule(ms);
-                    this.disableableModules.put(ms.getId(), module);
-                }
+                attachConfig(s, this.disableableModules.get(s));
+            } catch (Exception e) {
+                ModuleMetadata<? extends M> ms = this.discoveredModules.get(s);
+                ms.setPhase(ModulePhase.ERRORED);
+                fireErrored(ms, e);
+                undoRuntimeEnable(ordered, previousPhases, ImmutableSet.of(s), e);
+                throw e;
+            }
+        }
 
-                ms.setPhase(ModulePhase.CONSTRUCTED);
-                Set<String> phases = this.enabler.getEnablePhases();
+        try {
+            synchronized (this.configLock) {
+                config.saveAdapterDefaults(this.processDoNotMerge);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
 
-                module.checkExternalDependencies();
+        // Enabling
+        try {
+            for (String s : ordered) {
+                ModuleMetadata<? extends M> ms = this.discoveredModules.get(s);
+                D module = this.disableableModules.get(s);
+                try {
+                    module.checkExternalDependencies();
+                    for (String phase : this.enabler.getEnablePhases()) {
+                        firePhaseEntered(ms, phase);
+                        startEnablePhase(phase, ms, module);
+                    }
 
-                // Enabling
-                for (String phase : phases) {
-                    this.enabler.startEnablePhase(phase, this, module);
+                    ms.setPhase(ModulePhase.ENABLED);
+                    this.enabledModules.put(s, module);
+                    fireEnabled(ms);
+                } catch (Exception construction) {
+                    ms.setPhase(ModulePhase.ERRORED);
+                    fireErrored(ms, construction);
+                    undoRuntimeEnable(ordered, previousPhases, ImmutableSet.of(s), construction);
+                    throw construction;
                 }
+            }
+        } finally {
+            resetDisableableList();
+            publishSnapshot();
+        }
+    }
 
-                ms.setPhase(ModulePhase.ENABLED);
-                this.enabledModules.put(ms.getId(), module);
-            } catch (Exception construction) {
+    /**
+     * Cleans up a batch of modules that could not all be enabled at runtime. Modules in the batch that were enabled
+     * stay enabled. The rest lose their config adapters. Those that depend on a module that failed are marked as
+     * errored along with it, and the others go back to the phase they were in before the batch started.
+     *
+     * @param ordered The batch, in dependency order.
+     * @param previousPhases The phase of each module in the batch before it started.
+     * @param failed The modules that failed, which have already been marked as errored.
+     * @param cause Why they failed.
+     */
+    private void undoRuntimeEnable(List<String> ordered, Map<String, ModulePhase> previousPhases, Set<String> failed,
+            Exception cause) {
+        Set<String> errored = new HashSet<>(failed);
+        for (String s : ordered) {
+            ModuleMetadata<? extends M> ms = this.discoveredModules.get(s);
+            if (ms.getPhase() == ModulePhase.ENABLED) {
+                continue;
+            }
+
+            detachConfig(s);
+            if (errored.contains(s)) {
+                continue;
+            }
+
+            if (ms.getDependencies().stream().anyMatch(x -> errored.contains(x.toLowerCase()))) {
+                // Dependents come after their dependencies, so this also reaches modules that depend on them in turn.
+                errored.add(s);
                 ms.setPhase(ModulePhase.ERRORED);
-                throw construction;
+                fireErrored(ms, cause);
+            } else {
+                ms.setPhase(previousPhases.get(s));
             }
         }
 
+        publishSnapshot();
+    }
 
-        resetDisableableList();
+    private void constructForRuntimeEnable(List<String> ordered) throws Exception {
+        Map<String, CompletableFuture<M>> constructing = Maps.newLinkedHashMap();
+        for (String s : ordered) {
+            if (!this.disableableModules.containsKey(s)) {
+                ModuleMetadata<? extends M> ms = this.discoveredModules.get(s);
+                constructing.put(s, CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return timedConstructModule(ms);
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    }
+                }, getExecutor()));
+            }
+        }
+
+        Exception failure = null;
+        for (String s : ordered) {
+            ModuleMetadata<? extends M> ms = this.discoveredModules.get(s);
+            try {
+                if (constructing.containsKey(s)) {
+                    this.disableableModules.put(s, this.disableableClass.cast(constructing.get(s).join()));
+                }
+
+                ms.setPhase(ModulePhase.CONSTRUCTED);
+                fireConstructed(ms);
+            } catch (CompletionException e) {
+                Exception cause = e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                ms.setPhase(ModulePhase.ERRORED);
+                fireErrored(ms, cause);
+                if (failure == null) {
+                    failure = cause;
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
     }
 
     private void attachConfig(String name, M m) throws Exception {
         Optional<AbstractConfigAdapter<?>> a = m.getConfigAdapter();
         if (a.isPresent()) {
-            config.attachConfigAdapter(name, a.get(), this.headerProcessor.apply(m));
+            synchronized (this.configLock) {
+                config.attachConfigAdapter(name, a.get(), this.headerProcessor.apply(m));
+            }
+
+            this.adapterClasses.put(name, a.get().getClass());
+            fireConfigAttached(this.discoveredModules.get(name), a.get());
         }
     }
 
     private void detachConfig(String name) {
-        config.detachConfigAdapter(name);
+        synchronized (this.configLock) {
+            config.detachConfigAdapter(name);
+        }
     }
 
     @SuppressWarnings("unchecked")
@@ -702,7 +2193,9 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
      * @throws IOException If the config could not be saved.
      */
     public final void saveSystemConfig() throws IOException {
-        config.save();
+        synchronized (this.configLock) {
+            config.save();
+        }
     }
 
     /**
@@ -711,7 +2204,9 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
      * @throws IOException If the config could not be saved.
      */
     public final void refreshSystemConfig() throws IOException {
-        config.save(true);
+        synchronized (this.configLock) {
+            config.save(true);
+        }
     }
 
     /**
@@ -730,9 +2225,135 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
      * @return The module ID, or an empty {@link Optional#empty()}
      */
     public final Optional<String> getIdForModule(Module module) {
+        // Modules that were constructed from their own class loader, or swapped in from one, are not instances of the
+        // discovered class, so the instance is looked for first.
+        for (Map<String, ? extends M> modules : Arrays.asList(this.enabledModules, this.disableableModules)) {
+            for (Map.Entry<String, ? extends M> entry : modules.entrySet()) {
+                if (entry.getValue() == module) {
+                    return Optional.of(entry.getKey());
+                }
+            }
+        }
+
         return discoveredModules.entrySet().stream().filter(x -> x.getValue().getModuleClass() == module.getClass()).map(Map.Entry::getKey).findFirst();
     }
 
+    /**
+     * Registers a {@link ModuleLifecycleListener} that will be told about changes to the modules in this holder.
+     *
+     * <p>
+     *     To receive discovery events, register the listener on the {@link Builder} instead.
+     * </p>
+     *
+     * @param listener The listener.
+     */
+    public final synchronized void addLifecycleListener(ModuleLifecycleListener listener) {
+        Preconditions.checkNotNull(listener);
+        ModuleLifecycleListener[] newListeners = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+        newListeners[this.listeners.length] = listener;
+        this.listeners = newListeners;
+    }
+
+    /**
+     * Removes a {@link ModuleLifecycleListener} from this holder.
+     *
+     * @param listener The listener.
+     * @return <code>true</code> if the listener was registered.
+     */
+    public final synchronized boolean removeLifecycleListener(ModuleLifecycleListener listener) {
+        List<ModuleLifecycleListener> newListeners = new ArrayList<>(Arrays.asList(this.listeners));
+        if (newListeners.remove(listener)) {
+            this.listeners = newListeners.toArray(new ModuleLifecycleListener[0]);
+            return true;
+        }
+
+        return false;
+    }
+
+    private void fireDiscovered(ModuleMetadata<? extends M> ms) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onDiscovered(ms);
+            } catch (RuntimeException e) {
+                listenerFailed(e);
+            }
+        }
+    }
+
+    private void fireConstructed(ModuleMetadata<? extends M> ms) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onConstructed(ms);
+            } catch (RuntimeException e) {
+                listenerFailed(e);
+            }
+        }
+    }
+
+    private void fireConfigAttached(ModuleMetadata<? extends M> ms, AbstractConfigAdapter<?> adapter) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onConfigAttached(ms, adapter);
+            } catch (RuntimeException e) {
+                listenerFailed(e);
+            }
+        }
+    }
+
+    private void firePhaseEntered(ModuleMetadata<? extends M> ms, String phase) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onPhaseEntered(ms, phase);
+            } catch (RuntimeException e) {
+                listenerFailed(e);
+            }
+        }
+    }
+
+    private void fireEnabled(ModuleMetadata<? extends M> ms) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onEnabled(ms);
+            } catch (RuntimeException e) {
+                listenerFailed(e);
+            }
+        }
+    }
+
+    private void fireDisabled(ModuleMetadata<? extends M> ms) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onDisabled(ms);
+            } catch (RuntimeException e) {
+                listenerFailed(e);
+            }
+        }
+    }
+
+    private void fireErrored(ModuleMetadata<? extends M> ms, @Nullable Throwable cause) {
+        for (ModuleLifecycleListener listener : this.listeners) {
+            try {
+                listener.onErrored(ms, cause);
+            } catch (RuntimeException e) {
+                listenerFailed(e);
+            }
+        }
+    }
+
+    private void listenerFailed(RuntimeException e) {
+        e.printStackTrace();
+        this.loggerProxy.error(() -> "A module lifecycle listener failed: " + e.getMessage());
+    }
+
+    /**
+     * The activation of a lazy module, by the thread that created it.
+     */
+    private static final class LazyActivation {
+
+        private final Thread owner = Thread.currentThread();
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+    }
+
     /**
      * Builder class to create a {@link ModuleHolder}
      */
@@ -752,6 +2373,10 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         @Nullable Function<M, String> moduleConfigurationHeader = null;
         String moduleConfigSection = "modules";
         @Nullable String moduleDescription = null;
+        final List<ModuleLifecycleListener> listeners = new ArrayList<>();
+        @Nullable BootPlan bootPlan = null;
+        @Nullable Path classListFile = null;
+        @Nullable Executor phaseExecutor = null;
 
         protected abstract T getThis();
 
@@ -769,6 +2394,11 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         /**
          * Sets the {@link ConfigurationLoader} that will handle the module loading.
          *
+         * <p>
+         *     To avoid parsing an unchanged file on every start, wrap the loader in a
+         *     {@link SnapshotConfigurationLoader}.
+         * </p>
+         *
          * @param configurationLoader The loader to use.
          * @return This {@link Builder}, for chaining.
          */
@@ -797,6 +2427,10 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
         /**
          * Sets the {@link LoggerProxy} to use for log messages.
          *
+         * <p>
+         *     To move logging off the loading thread, wrap the proxy in an {@link AsyncLoggerProxy}.
+         * </p>
+         *
          * @param loggerProxy The logger proxy to use.
          * @return This {@link Builder}, for chaining.
          */
@@ -905,6 +2539,87 @@ public abstract class ModuleHolder<M extends Module, D extends M> {
             return getThis();
         }
 
+        /**
+         * Tells the system how to transform the entire configuration before it
+         * is loaded, but only when upgrading the file to the given version. The
+         * version the file is at is recorded in the file, so the transformation
+         * is only run once.
+         *
+         * @param version The version of the file this transformation upgrades to.
+         * @param transformation The transformation to apply.
+         * @return This {@link Builder}, for chaining.
+         * @see AbstractConfigAdapter.Transformation#atVersion(int)
+         */
+        public T transformConfig(int version, AbstractConfigAdapter.Transformation transformation) {
+            return transformConfig(transformation.atVersion(version));
+        }
+
+        /**
+         * Registers a {@link ModuleLifecycleListener} that will be told about changes to the modules in
+         * the holder, starting with discovery.
+         *
+         * @param listener The listener.
+         * @return This {@link Builder}, for chaining.
+         */
+        public T addLifecycleListener(ModuleLifecycleListener listener) {
+            this.listeners.add(Preconditions.checkNotNull(listener));
+            return getThis();
+        }
+
+        /**
+         * Sets a {@link BootPlan} from a previous start, which will be used instead of discovering and ordering the
+         * modules, if it still matches the modules on the classpath.
+         *
+         * @param bootPlan The {@link BootPlan}, or {@code null} to always discover modules.
+         * @return This {@link Builder}, for chaining.
+         */
+        public T setBootPlan(@Nullable BootPlan bootPlan) {
+            this.bootPlan = bootPlan;
+            return getThis();
+        }
+
+        /**
+         * Puts the holder into training mode. Once {@link ModuleHolder#loadModules(boolean)} has completed, the classes
+         * loaded for discovery, construction and configuration will be written to the given file, in the format used
+         * by the JVM's <code>-XX:SharedClassListFile</code> option, so that a class data sharing archive can be built.
+         *
+         * @param classListFile The file to write to, or {@code null} to turn training mode off.
+         * @return This {@link Builder}, for chaining.
+         */
+        public T setClassListFile(@Nullable Path classListFile) {
+            this.classListFile = classListFile;
+            return getThis();
+        }
+
+        /**
+         * Sets the {@link Executor} to run module phases on. If set, the enable phases of modules that do not depend on
+         * each other are run concurrently on this executor, as are the construction and disable phases of modules that
+         * are enabled or disabled at runtime. Phases that block on I/O benefit most, so an executor that runs each task
+         * on its own (virtual, where available) thread, such as {@link PhaseExecutors#virtualThreadsIfAvailable()}, is
+         * a good choice.
+         *
+         * <p>
+         *     Module discovery is also run on this executor. The module holder does not shut the executor down. If not
+         *     set, enable phases are run on the calling thread, and discovery and runtime work on the common
+         *     {@link ForkJoinPool}.
+         * </p>
+         *
+         * <p>
+         *     If set, phase actions in the {@link PhasedModuleEnabler}, and any {@link ModuleLifecycleListener}s, are
+         *     called from several threads at once, so must be thread-safe. If a module fails in a way that stops
+         *     loading, modules that have not started the phase yet are not started, and the threads running phases
+         *     that have are interrupted. Those phases are still waited for before the failure is thrown, and are
+         *     marked as errored if they end in a failure, so phases that block should give up when interrupted.
+         * </p>
+         *
+         * @param phaseExecutor The {@link Executor}, or {@code null} for the default behaviour.
+         * @return This {@link Builder}, for chaining.
+         */
+        public T setPhaseExecutor(@Nullable Executor phaseExecutor) {
+            this.phaseExecutor = phaseExecutor;
+            return getThis();
+        }
+
         /**
          * Sets whether modules in this module holder can be disabled at runtime.
          *
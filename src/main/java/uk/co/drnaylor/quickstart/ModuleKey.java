@@ -0,0 +1,63 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+/**
+ * A handle to a discovered module, obtained from {@link ModuleHolder#getModuleKey(String, Class)}.
+ *
+ * <p>
+ *     Looking a module up through its key reads a slot in an array, rather than hashing its ID, so keys should be
+ *     obtained once and kept by code that looks modules up often. There is only ever one key for each module in a
+ *     holder, and a key can only be used with the holder that issued it.
+ * </p>
+ *
+ * @param <T> The type of the module.
+ */
+public final class ModuleKey<T extends Module> {
+
+    final ModuleHolder<?, ?> holder;
+    final int index;
+    private final String id;
+    private final Class<? extends Module> moduleClass;
+
+    ModuleKey(ModuleHolder<?, ?> holder, int index, String id, Class<? extends Module> moduleClass) {
+        this.holder = holder;
+        this.index = index;
+        this.id = id;
+        this.moduleClass = moduleClass;
+    }
+
+    /**
+     * Gets the ID of the module.
+     *
+     * @return The ID.
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Gets the position of the module in the holder's load order.
+     *
+     * @return The index.
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * Gets the {@link Class} of the module.
+     *
+     * @return The {@link Class}.
+     */
+    public Class<? extends Module> getModuleClass() {
+        return this.moduleClass;
+    }
+
+    @Override
+    public String toString() {
+        return "ModuleKey{" + this.id + "}";
+    }
+}
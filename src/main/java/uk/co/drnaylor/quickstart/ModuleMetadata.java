@@ -5,6 +5,7 @@
 package uk.co.drnaylor.quickstart;
 
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import uk.co.drnaylor.quickstart.annotations.ModuleData;
 import uk.co.drnaylor.quickstart.enums.LoadingStatus;
@@ -24,9 +25,11 @@ public final class ModuleMetadata<M extends Module> {
     private final String name;
     private final String id;
     private final boolean runtimeDisableable;
-    private LoadingStatus status;
+    private volatile LoadingStatus status;
     private final boolean isMandatory;
-    private ModulePhase phase = ModulePhase.DISCOVERED;
+    private final boolean isLazy;
+    private final long cost;
+    private volatile ModulePhase phase = ModulePhase.DISCOVERED;
 
     ModuleMetadata(Class<M> moduleClass, boolean isDisableable, ModuleData data) {
         this(moduleClass,
@@ -36,11 +39,13 @@ public final class ModuleMetadata<M extends Module> {
                 data.isRequired(),
                 isDisableable,
                 Arrays.asList(data.softDependencies()),
-                Arrays.asList(data.dependencies()));
+                Arrays.asList(data.dependencies()),
+                data.lazy(),
+                data.cost());
     }
 
     ModuleMetadata(Class<M> moduleClass, boolean isDisableable, String id, String name, LoadingStatus status, boolean isMandatory) {
-        this(moduleClass, id, name, status, isMandatory, isDisableable, Lists.newArrayList(), Lists.newArrayList());
+        this(moduleClass, id, name, status, isMandatory, isDisableable, Lists.newArrayList(), Lists.newArrayList(), false, 1);
     }
 
     ModuleMetadata(Class<M> moduleClass,
@@ -50,13 +55,16 @@ public final class ModuleMetadata<M extends Module> {
             boolean isMandatory,
             boolean isDisableable,
             List<String> softDeps,
-            List<String> deps) {
+            List<String> deps,
+            boolean isLazy,
+            long cost) {
         Preconditions.checkNotNull(moduleClass);
         Preconditions.checkNotNull(id);
         Preconditions.checkNotNull(name);
         Preconditions.checkNotNull(status);
         Preconditions.checkNotNull(deps);
         Preconditions.checkNotNull(softDeps);
+        Preconditions.checkArgument(cost >= 0, "cost must not be negative");
 
         this.id = id;
         this.moduleClass = moduleClass;
@@ -66,6 +74,32 @@ public final class ModuleMetadata<M extends Module> {
         this.isMandatory = isMandatory;
         this.softDeps = softDeps;
         this.deps = deps;
+        this.isLazy = isLazy;
+        this.cost = cost;
+    }
+
+    private ModuleMetadata(ModuleMetadata<M> original) {
+        this.id = original.id;
+        this.moduleClass = original.moduleClass;
+        this.runtimeDisableable = original.runtimeDisableable;
+        this.name = original.name;
+        this.status = original.status;
+        this.isMandatory = original.isMandatory;
+        this.softDeps = ImmutableList.copyOf(original.softDeps);
+        this.deps = ImmutableList.copyOf(original.deps);
+        this.isLazy = original.isLazy;
+        this.cost = original.cost;
+        this.phase = original.phase;
+    }
+
+    /**
+     * Gets a copy of this metadata as it is now. The copy does not change as the module moves through its lifecycle,
+     * so it can be handed to another thread.
+     *
+     * @return The copy.
+     */
+    public ModuleMetadata<M> snapshot() {
+        return new ModuleMetadata<>(this);
     }
 
     /**
@@ -169,4 +203,22 @@ public final class ModuleMetadata<M extends Module> {
     public boolean isRuntimeAlterable() {
         return runtimeDisableable;
     }
+
+    /**
+     * Returns whether this module is only constructed and enabled when it is first used.
+     *
+     * @return <code>true</code> if so.
+     */
+    public boolean isLazy() {
+        return isLazy;
+    }
+
+    /**
+     * Gets the hinted cost of enabling this module, in milliseconds.
+     *
+     * @return The cost.
+     */
+    public long getCost() {
+        return cost;
+    }
 }
@@ -0,0 +1,196 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Map} of module IDs to values that stores each value in the slot given by the module's
+ * {@link ModuleKey#getIndex()}, rather than in hashed entries. Lookups by index read one array slot, and iteration
+ * follows the load order of the modules.
+ *
+ * <p>
+ *     Reads do not lock, and see writes as soon as they are made. Writes are serialised. Iterators do not throw
+ *     {@link java.util.ConcurrentModificationException}, and support removal.
+ * </p>
+ *
+ * <p>
+ *     IDs are matched exactly, as they are by the discovered modules, so callers must pass the ID as it was
+ *     discovered. Only discovered modules can be put in the registry.
+ * </p>
+ *
+ * @param <T> The type of value.
+ */
+final class ModuleRegistry<T> extends AbstractMap<String, T> {
+
+    private static final AtomicReferenceArray<?> EMPTY = new AtomicReferenceArray<>(0);
+
+    private final Map<String, ModuleKey<?>> keys;
+    @SuppressWarnings("unchecked")
+    private volatile AtomicReferenceArray<T> slots = (AtomicReferenceArray<T>) EMPTY;
+    private volatile ModuleKey<?>[] keysByIndex = new ModuleKey<?>[0];
+    private final BitSet present = new BitSet();
+    private volatile int size = 0;
+
+    /**
+     * Creates a {@link ModuleRegistry}.
+     *
+     * @param keys The {@link ModuleKey}s of the modules, by ID, which must be filled in before
+     *             {@link #allocate(ModuleKey[])} is called.
+     */
+    ModuleRegistry(Map<String, ModuleKey<?>> keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Sizes the registry for the discovered modules.
+     *
+     * @param keysByIndex The {@link ModuleKey}s of the modules, by index.
+     */
+    synchronized void allocate(ModuleKey<?>[] keysByIndex) {
+        Preconditions.checkState(this.size == 0, "The registry is not empty.");
+        this.keysByIndex = keysByIndex;
+        this.slots = new AtomicReferenceArray<>(keysByIndex.length);
+    }
+
+    @Nullable
+    T get(int index) {
+        return this.slots.get(index);
+    }
+
+    @Override
+    @Nullable
+    public T get(Object id) {
+        int index = indexOf(id);
+        return index < 0 ? null : this.slots.get(index);
+    }
+
+    @Override
+    public boolean containsKey(Object id) {
+        return get(id) != null;
+    }
+
+    @Override
+    public synchronized T put(String id, T value) {
+        Preconditions.checkNotNull(value);
+        int index = indexOf(id);
+        Preconditions.checkArgument(index >= 0, "%s is not a discovered module.", id);
+        T previous = this.slots.getAndSet(index, value);
+        if (previous == null) {
+            this.present.set(index);
+            this.size++;
+        }
+
+        return previous;
+    }
+
+    @Override
+    @Nullable
+    public T remove(Object id) {
+        int index = indexOf(id);
+        return index < 0 ? null : remove(index);
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int i = this.present.nextSetBit(0); i >= 0; i = this.present.nextSetBit(i + 1)) {
+            this.slots.set(i, null);
+        }
+
+        this.present.clear();
+        this.size = 0;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public Set<Entry<String, T>> entrySet() {
+        return new AbstractSet<Entry<String, T>>() {
+            @Override
+            public Iterator<Entry<String, T>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return ModuleRegistry.this.size;
+            }
+        };
+    }
+
+    @Nullable
+    private synchronized T remove(int index) {
+        T previous = this.slots.getAndSet(index, null);
+        if (previous != null) {
+            this.present.clear(index);
+            this.size--;
+        }
+
+        return previous;
+    }
+
+    private int indexOf(Object id) {
+        ModuleKey<?> key = this.keys.get(id);
+        return key == null || key.index >= this.slots.length() ? -1 : key.index;
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, T>> {
+
+        private final AtomicReferenceArray<T> slots = ModuleRegistry.this.slots;
+        private final ModuleKey<?>[] byIndex = ModuleRegistry.this.keysByIndex;
+        private int next = -1;
+        private int last = -1;
+        @Nullable private T nextValue;
+
+        private EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            do {
+                this.next++;
+                this.nextValue = this.next < this.slots.length() ? this.slots.get(this.next) : null;
+            } while (this.nextValue == null && this.next < this.slots.length());
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextValue != null;
+        }
+
+        @Override
+        public Entry<String, T> next() {
+            if (this.nextValue == null) {
+                throw new NoSuchElementException();
+            }
+
+            Entry<String, T> entry = new SimpleImmutableEntry<>(this.byIndex[this.next].getId(), this.nextValue);
+            this.last = this.next;
+            advance();
+            return entry;
+        }
+
+        @Override
+        public void remove() {
+            Preconditions.checkState(this.last >= 0);
+            ModuleRegistry.this.remove(this.last);
+            this.last = -1;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import javax.annotation.Nullable;
+
+/**
+ * Implemented by modules that can pass their state on to a replacement instance when they are swapped using
+ * {@link ModuleHolder#hotSwapModule(String, Module)}. Both the old and the new instance must implement this interface
+ * for the state to be handed over.
+ *
+ * <p>
+ *     The replacement may have been loaded by a different {@link ClassLoader} to the old instance, so the state should
+ *     only be made up of types that both can see, such as JDK types, rather than classes in the module's own package.
+ * </p>
+ */
+public interface ModuleStateHandoff {
+
+    /**
+     * Exports the state of this module. This is called while the module is still enabled.
+     *
+     * @return The state, or {@code null} if there is none.
+     * @throws Exception if the state could not be exported, in which case the swap is cancelled.
+     */
+    @Nullable Object exportState() throws Exception;
+
+    /**
+     * Imports the state of the module this one is replacing. This is called before this module is enabled.
+     *
+     * @param state The state returned by {@link #exportState()} on the old instance.
+     * @throws Exception if the state could not be imported, in which case the swap is cancelled.
+     */
+    void importState(@Nullable Object state) throws Exception;
+}
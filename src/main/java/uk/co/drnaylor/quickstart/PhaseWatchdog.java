@@ -0,0 +1,148 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart;
+
+import uk.co.drnaylor.quickstart.enums.WatchdogPolicy;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.Nullable;
+
+/**
+ * Runs module phases that have a deadline, and reports where they are stuck if they overrun it.
+ *
+ * <p>
+ *     Under {@link WatchdogPolicy#KEEP_WAITING}, the phase runs on the calling thread, and a single watchdog thread
+ *     samples its stack if it is still running at the deadline.
+ * </p>
+ *
+ * <p>
+ *     Under a policy that gives up on the phase, the phase has to be handed to a worker thread, so that the caller can
+ *     carry on if it never returns. This costs a thread hand-off for every watched phase, and the phase does not run
+ *     on the loading thread. A phase that is given up on is interrupted, but if it ignores that, it keeps running on
+ *     the worker in the background, and can still change its module after the module has been marked as
+ *     {@link uk.co.drnaylor.quickstart.enums.ModulePhase#ERRORED}.
+ * </p>
+ */
+final class PhaseWatchdog {
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "QuickStart Phase Watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService WORKERS = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "QuickStart Watched Phase " + COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PhaseWatchdog() {}
+
+    /**
+     * Runs a task, logging the stack of the thread running it if it overruns the deadline, and then acting according
+     * to the {@link WatchdogPolicy}.
+     *
+     * @param task The task.
+     * @param description What the task is doing, for example, "Module x in phase y".
+     * @param deadline How long the task may run for.
+     * @param policy What to do if the task overruns.
+     * @param logger The {@link LoggerProxy} to report to.
+     * @throws TimeoutException if the task overran and the policy is not {@link WatchdogPolicy#KEEP_WAITING}.
+     * @throws Exception if the task threw.
+     */
+    static void run(Callable<?> task, String description, Duration deadline, WatchdogPolicy policy, LoggerProxy logger)
+            throws Exception {
+        if (policy == WatchdogPolicy.KEEP_WAITING) {
+            runWatched(task, description, deadline, logger);
+            return;
+        }
+
+        AtomicReference<Thread> runner = new AtomicReference<>();
+        Future<?> future = WORKERS.submit(() -> {
+            runner.set(Thread.currentThread());
+            try {
+                return task.call();
+            } finally {
+                runner.set(null);
+            }
+        });
+
+        try {
+            try {
+                future.get(deadline.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                logger.error(report(description, deadline, runner.get()));
+                future.cancel(true);
+                throw new TimeoutException(description + " did not complete within " + deadline.toMillis() + "ms.");
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Runs a task on the calling thread, with the watchdog thread logging where it is if it is still running at the
+     * deadline.
+     */
+    private static void runWatched(Callable<?> task, String description, Duration deadline, LoggerProxy logger)
+            throws Exception {
+        Thread caller = Thread.currentThread();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ScheduledFuture<?> sample = WATCHDOG.schedule(() -> {
+            if (running.get()) {
+                logger.warn(report(description, deadline, caller));
+            }
+        }, deadline.toNanos(), TimeUnit.NANOSECONDS);
+
+        try {
+            task.call();
+        } finally {
+            running.set(false);
+            sample.cancel(false);
+        }
+    }
+
+    private static String report(String description, Duration deadline, @Nullable Thread thread) {
+        StringBuilder sb = new StringBuilder(description)
+                .append(" has not completed within ").append(deadline.toMillis()).append("ms.");
+        if (thread == null) {
+            return sb.toString();
+        }
+
+        sb.append(" Thread \"").append(thread.getName()).append("\" is at:");
+        for (StackTraceElement element : thread.getStackTrace()) {
+            sb.append(System.lineSeparator()).append("\tat ").append(element);
+        }
+
+        return sb.toString();
+    }
+}
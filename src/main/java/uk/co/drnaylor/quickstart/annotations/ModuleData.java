@@ -76,4 +76,22 @@ public @interface ModuleData {
      */
     boolean isRequired() default false;
 
+    /**
+     * Marks the module as lazy. A lazy module is discovered and dependency checked as normal, but is not constructed or
+     * enabled until it is first requested through {@link uk.co.drnaylor.quickstart.ModuleHolder#getModule(String)}, or
+     * a module that depends on it is enabled.
+     *
+     * @return <code>true</code> if the module should only be activated when it is first used.
+     */
+    boolean lazy() default false;
+
+    /**
+     * A hint of how long this module takes to enable, in milliseconds. When enable phases run concurrently, modules at
+     * the head of the most expensive chains of dependents are started first. Timings recorded in a
+     * {@link uk.co.drnaylor.quickstart.BootPlan} take precedence over this hint.
+     *
+     * @return The estimated cost of enabling this module.
+     */
+    long cost() default 1;
+
 }
@@ -39,7 +39,20 @@ import javax.annotation.Nullable;
  */
 public class AbstractAdaptableConfig<N extends ConfigurationNode> {
 
-    private final ImmutableList<AbstractConfigAdapter.Transformation> transformations;
+    /**
+     * The paths of any {@link NoMergeIfPresent} fields, keyed by the {@link ConfigSerializable} class they were found in.
+     * These only depend on the class, so the reflection is done once per class, rather than on every save.
+     */
+    private static final ClassValue<List<Object[]>> doNotMergePaths = new ClassValue<List<Object[]>>() {
+        @Override
+        protected List<Object[]> computeValue(Class<?> type) {
+            List<Object[]> doNotMerge = Lists.newArrayList();
+            getDoNotMerge(new Stack<>(), type, doNotMerge);
+            return ImmutableList.copyOf(doNotMerge);
+        }
+    };
+
+    @Nullable private final ConfigurationTransformation transformation;
     private Map<String, AbstractConfigAdapter<?>> moduleConfigAdapters = Maps.newHashMap();
 
     private final ConfigurationLoader<N> loader;
@@ -67,7 +80,10 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
         this.loader = loader;
         this.nodeCreator = nodeCreator;
         this.optionsTransformer = optionsTransformer;
-        this.transformations = ImmutableList.copyOf(transformations);
+        this.transformation = AbstractConfigAdapter.Transformation.compile(
+                transformations,
+                new Object[] { AbstractConfigAdapter.Transformation.DEFAULT_VERSION_KEY },
+                MoveStrategy.MERGE);
         load();
     }
 
@@ -83,10 +99,8 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
      */
     public void load() throws IOException {
         this.node = loader.load(optionsTransformer.apply(loader.getDefaultOptions()));
-        if (!this.transformations.isEmpty()) {
-            final ConfigurationTransformation.Builder transformation = ConfigurationTransformation.builder();
-            this.transformations.forEach(x -> transformation.addAction(x.getObjectPath(), x.getAction()));
-            transformation.setMoveStrategy(MoveStrategy.MERGE).build().apply(this.node);
+        if (this.transformation != null) {
+            this.transformation.apply(this.node);
         }
     }
 
@@ -134,7 +148,7 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
      * @param header The header for the module.
      * @throws IOException if the configuration defaults could not be saved.
      * @throws IllegalArgumentException if the module has already been attached to.
-     * @throws IllegalStateException if the adapter has already been attached.
+     * @throws IllegalStateException if the adapter has already been attached to another config.
      */
     @SuppressWarnings("unchecked")
     public final void attachConfigAdapter(String module, AbstractConfigAdapter<?> configAdapter, @Nullable String header) throws IOException {
@@ -142,6 +156,12 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
             throw new IllegalArgumentException();
         }
 
+        if (configAdapter.isAttachedTo(this)) {
+            // It was detached from the module, but is still bound to this config, so just put it back.
+            moduleConfigAdapters.put(module.toLowerCase(), configAdapter);
+            return;
+        }
+
         configAdapter.attachConfig(
                 module.toLowerCase(),
                 this,
@@ -152,6 +172,20 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
         moduleConfigAdapters.put(module.toLowerCase(), configAdapter);
     }
 
+    /**
+     * Re-attaches an {@link AbstractConfigAdapter} that was detached from a module using
+     * {@link #detachConfigAdapter(String)}, but is still bound to this {@link AbstractAdaptableConfig}.
+     *
+     * @param module The name of the module that this configuration is for.
+     * @param configAdapter The {@link AbstractConfigAdapter} to re-attach.
+     * @throws IllegalArgumentException if the module has an adapter attached, or the adapter was never attached here.
+     */
+    public final void reattachConfigAdapter(String module, AbstractConfigAdapter<?> configAdapter) {
+        Preconditions.checkArgument(configAdapter.isAttachedTo(this), "The adapter was not attached to this config.");
+        Preconditions.checkArgument(!moduleConfigAdapters.containsKey(module.toLowerCase()), "The module already has an adapter.");
+        moduleConfigAdapters.put(module.toLowerCase(), configAdapter);
+    }
+
     /**
      * Detaches a module's {@link AbstractConfigAdapter} from this {@link AbstractAdaptableConfig}.
      *
@@ -208,8 +242,6 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
     public void saveAdapterDefaults(boolean processNoMergeIfPresent) throws IOException {
         CommentedConfigurationNode n = SimpleCommentedConfigurationNode.root();
 
-        Stack<String> moduleStack = new Stack<>();
-        List<Object[]> doNotMerge = Lists.newArrayList();
         moduleConfigAdapters.forEach((k, v) -> {
 
             // Configurate does something I wasn't expecting. If we set a single value with a key on a node, it seems
@@ -220,22 +252,14 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
                 cn = cn.getParent();
             }
 
-            if (processNoMergeIfPresent) {
-                if (v instanceof TypedAbstractConfigAdapter) {
-                    Object o = ((TypedAbstractConfigAdapter) v).getDefaultObject();
-                    getDoNotMerge(moduleStack, o.getClass(), doNotMerge);
-                }
-
-                if (!doNotMerge.isEmpty()) {
-                    for (Object[] keys : doNotMerge) {
-                        ConfigurationNode toCheck = node.getNode(k).getNode((Object[])keys);
-                        if (!toCheck.isVirtual() && toCheck.getValue() != null) {
-                            cn.getNode((Object[])keys).setValue(null);
-                            cn.getNode((Object[])keys).getParent().removeChild(keys[keys.length - 1]);
-                        }
+            if (processNoMergeIfPresent && v instanceof TypedAbstractConfigAdapter) {
+                Object o = ((TypedAbstractConfigAdapter) v).getDefaultObject();
+                for (Object[] keys : doNotMergePaths.get(o.getClass())) {
+                    ConfigurationNode toCheck = node.getNode(k).getNode(keys);
+                    if (!toCheck.isVirtual() && toCheck.getValue() != null) {
+                        cn.getNode(keys).setValue(null);
+                        cn.getNode(keys).getParent().removeChild(keys[keys.length - 1]);
                     }
-
-                    doNotMerge.clear();
                 }
             }
 
@@ -249,11 +273,9 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
             ConfigurationNode nodeToTransform = node.getNode(k.toLowerCase());
             if (!nodeToTransform.isVirtual()) {
                 v.manualTransform(nodeToTransform);
-                List<AbstractConfigAdapter.Transformation> transformations = v.getTransformations();
-                if (!transformations.isEmpty() && v.isAttached()) {
-                    ConfigurationTransformation.Builder ctBuilder = ConfigurationTransformation.builder();
-                    transformations.forEach(x -> ctBuilder.addAction(x.getObjectPath(), x.getAction()));
-                    ctBuilder.build().apply(nodeToTransform);
+                ConfigurationTransformation transformation = v.getCompiledTransformation();
+                if (transformation != null && v.isAttached()) {
+                    transformation.apply(nodeToTransform);
                 }
 
                 node.getNode(k.toLowerCase()).setValue(nodeToTransform);
@@ -263,9 +285,8 @@ public class AbstractAdaptableConfig<N extends ConfigurationNode> {
         save();
     }
 
-    private void getDoNotMerge(Stack<String> keySoFar, Class<?> configSerialisable, List<Object[]> doNotMergeList) {
+    private static void getDoNotMerge(Stack<String> keySoFar, Class<?> configSerialisable, List<Object[]> doNotMergeList) {
         for (Field field : configSerialisable.getDeclaredFields()) {
-            field.setAccessible(true);
             if (field.isAnnotationPresent(Setting.class)) {
                 String value = field.getAnnotation(Setting.class).value();
                 if (value.equals("")) {
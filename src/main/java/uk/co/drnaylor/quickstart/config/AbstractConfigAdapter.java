@@ -5,16 +5,21 @@
 package uk.co.drnaylor.quickstart.config;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 import ninja.leaping.configurate.ConfigurationNode;
 import ninja.leaping.configurate.ConfigurationOptions;
 import ninja.leaping.configurate.commented.CommentedConfigurationNode;
 import ninja.leaping.configurate.objectmapping.ObjectMappingException;
+import ninja.leaping.configurate.transformation.ConfigurationTransformation;
+import ninja.leaping.configurate.transformation.MoveStrategy;
 import ninja.leaping.configurate.transformation.TransformAction;
 import uk.co.drnaylor.quickstart.annotations.DoNotSave;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
 
@@ -54,6 +59,10 @@ public abstract class AbstractConfigAdapter<R> {
     @Nullable private String module = null;
     @Nullable private String header = null;
 
+    private boolean transformationCompiled = false;
+    @Nullable private ConfigurationTransformation transformation = null;
+    @Nullable private Object[] versionKey = null;
+
     final void attachConfig(String module,
             AbstractAdaptableConfig<?> adapter,
             Supplier<ConfigurationNode> nodeGetter,
@@ -72,6 +81,10 @@ public abstract class AbstractConfigAdapter<R> {
         onAttach(module, adapter);
     }
 
+    final boolean isAttachedTo(AbstractAdaptableConfig<?> config) {
+        return this.attachedConfig == config;
+    }
+
     final void detachConfig() {
         Preconditions.checkState(attachedConfig != null);
         onDetach(this.module, this.attachedConfig);
@@ -151,6 +164,15 @@ public abstract class AbstractConfigAdapter<R> {
         Preconditions.checkState(attachedConfig != null, "You must attach this adapter before using it.");
 
         ConfigurationNode node = insertIntoConfigurateNode(getNewNode(), data);
+        getCompiledTransformation();
+        if (this.versionKey != null) {
+            // The version is not part of R, so carry it over, otherwise versioned transformations would run again.
+            ConfigurationNode version = nodeGetter.get().getNode(this.versionKey);
+            if (!version.isVirtual()) {
+                node.getNode(this.versionKey).setValue(version.getValue());
+            }
+        }
+
         if (this.header != null && node instanceof CommentedConfigurationNode) {
             CommentedConfigurationNode ccn = (CommentedConfigurationNode) node;
             ccn.setComment(this.header);
@@ -206,10 +228,46 @@ public abstract class AbstractConfigAdapter<R> {
     /**
      * Gets the transformations that are required to this section.
      *
+     * <p>
+     *     This is only called once per adapter, the result is compiled and reused. Transformations that are
+     *     created with {@link Transformation#atVersion(int)} are only run once, the version that the section
+     *     has been upgraded to is stored under {@link #getVersionKey()}.
+     * </p>
+     *
      * @return The transformations that are required.
      */
     protected List<Transformation> getTransformations() {
-        return Lists.newArrayList();
+        return ImmutableList.of();
+    }
+
+    /**
+     * Gets the path, relative to this section, that records the version of this section for versioned
+     * {@link Transformation}s.
+     *
+     * @return The path.
+     */
+    protected Object[] getVersionKey() {
+        return new Object[] { Transformation.DEFAULT_VERSION_KEY };
+    }
+
+    /**
+     * Gets the {@link ConfigurationTransformation} built from {@link #getTransformations()}, compiling it on first use.
+     *
+     * @return The transformation, or {@code null} if there are no transformations.
+     */
+    @Nullable
+    final ConfigurationTransformation getCompiledTransformation() {
+        if (!this.transformationCompiled) {
+            List<Transformation> transformations = getTransformations();
+            this.transformation = Transformation.compile(transformations, getVersionKey(), null);
+            if (transformations.stream().anyMatch(Transformation::isVersioned)) {
+                this.versionKey = getVersionKey();
+            }
+
+            this.transformationCompiled = true;
+        }
+
+        return this.transformation;
     }
 
     /**
@@ -253,8 +311,15 @@ public abstract class AbstractConfigAdapter<R> {
      * Represents a transformation to be made to the configuration BEFORE it is completely loaded.
      */
     public static final class Transformation {
+
+        /**
+         * The default key that the version of a node is stored under for versioned transformations.
+         */
+        public static final String DEFAULT_VERSION_KEY = "config-version";
+
         private final Object[] objectPath;
         private final TransformAction action;
+        private final int version;
 
         /**
          * Move a top level key to a new key.
@@ -283,8 +348,29 @@ public abstract class AbstractConfigAdapter<R> {
          * @param action The {@link TransformAction} containing the transformation.
          */
         public Transformation(Object[] objectPath, TransformAction action) {
+            this(objectPath, action, -1);
+        }
+
+        private Transformation(Object[] objectPath, TransformAction action, int version) {
             this.objectPath = objectPath;
             this.action = action;
+            this.version = version;
+        }
+
+        /**
+         * Creates a copy of this transformation that is only run when upgrading the node to the given version.
+         *
+         * <p>
+         *     Once the transformation has been applied, the version is recorded in the node and the transformation
+         *     will not be run again.
+         * </p>
+         *
+         * @param version The version of the node that this transformation upgrades to.
+         * @return The versioned {@link Transformation}
+         */
+        public Transformation atVersion(int version) {
+            Preconditions.checkArgument(version >= 0, "version must not be negative");
+            return new Transformation(this.objectPath, this.action, version);
         }
 
         Object[] getObjectPath() {
@@ -295,6 +381,63 @@ public abstract class AbstractConfigAdapter<R> {
             return action;
         }
 
+        boolean isVersioned() {
+            return this.version >= 0;
+        }
+
+        /**
+         * Compiles the supplied transformations into a single reusable {@link ConfigurationTransformation}. Versioned
+         * transformations are run after those that always run.
+         *
+         * @param transformations The transformations to compile.
+         * @param versionKey The path that records the version of the node.
+         * @param moveStrategy The {@link MoveStrategy} to use, or {@code null} to use the default.
+         * @return The transformation, or {@code null} if there is nothing to do.
+         */
+        @Nullable
+        static ConfigurationTransformation compile(List<Transformation> transformations, Object[] versionKey,
+                @Nullable MoveStrategy moveStrategy) {
+            List<Transformation> always = new ArrayList<>();
+            Map<Integer, List<Transformation>> versioned = new TreeMap<>();
+            for (Transformation transformation : transformations) {
+                if (transformation.isVersioned()) {
+                    versioned.computeIfAbsent(transformation.version, k -> new ArrayList<>()).add(transformation);
+                } else {
+                    always.add(transformation);
+                }
+            }
+
+            List<ConfigurationTransformation> compiled = new ArrayList<>();
+            if (!always.isEmpty()) {
+                compiled.add(build(always, moveStrategy));
+            }
+
+            if (!versioned.isEmpty()) {
+                ConfigurationTransformation.VersionedBuilder builder = ConfigurationTransformation.versionedBuilder().setVersionKey(versionKey);
+                versioned.forEach((version, list) -> builder.addVersion(version, build(list, moveStrategy)));
+                compiled.add(builder.build());
+            }
+
+            switch (compiled.size()) {
+                case 0:
+                    return null;
+                case 1:
+                    return compiled.get(0);
+                default:
+                    return ConfigurationTransformation.chain(compiled.toArray(new ConfigurationTransformation[0]));
+            }
+        }
+
+        private static ConfigurationTransformation build(List<Transformation> transformations, @Nullable MoveStrategy moveStrategy) {
+            final ConfigurationTransformation.Builder builder = ConfigurationTransformation.builder();
+            transformations.forEach(x -> builder.addAction(x.getObjectPath(), x.getAction()));
+            if (moveStrategy != null) {
+                builder.setMoveStrategy(moveStrategy);
+            }
+
+            return builder.build();
+        }
+
         public final static class From {
 
             private final Object[] from;
@@ -0,0 +1,355 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.config;
+
+import com.google.common.base.Preconditions;
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.ConfigurationOptions;
+import ninja.leaping.configurate.commented.CommentedConfigurationNode;
+import ninja.leaping.configurate.loader.ConfigurationLoader;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ConfigurationLoader} that keeps a compact binary snapshot of the parsed configuration tree next to the
+ * text file, so that unchanged files do not have to be parsed again on the next load.
+ *
+ * <p>
+ *     The text file is always the source of truth. The snapshot records the SHA-256 hash of the file it was taken
+ *     from, and is only used if the file still has that hash. Otherwise, the file is parsed by the wrapped loader and
+ *     a new snapshot is written. Saving always goes to the wrapped loader - if the saved file is unchanged, the
+ *     snapshot remains valid.
+ * </p>
+ *
+ * <p>
+ *     Snapshots support maps, lists, comments and the scalar types that text formats produce (strings, numbers and
+ *     booleans). If a tree contains anything else, no snapshot is written.
+ * </p>
+ *
+ * @param <N> The type of {@link ConfigurationNode} that the wrapped loader produces.
+ */
+public final class SnapshotConfigurationLoader<N extends ConfigurationNode> implements ConfigurationLoader<N> {
+
+    private static final int MAGIC = 0x5153534E; // QSSN
+    private static final byte FORMAT_VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_MAP = 1;
+    private static final byte TYPE_LIST = 2;
+    private static final byte TYPE_STRING = 3;
+    private static final byte TYPE_INT = 4;
+    private static final byte TYPE_LONG = 5;
+    private static final byte TYPE_DOUBLE = 6;
+    private static final byte TYPE_FLOAT = 7;
+    private static final byte TYPE_BOOLEAN = 8;
+
+    private final ConfigurationLoader<N> delegate;
+    private final Path source;
+    private final Path snapshot;
+    private boolean loadedFromSnapshot = false;
+
+    /**
+     * Wraps a {@link ConfigurationLoader}, storing the snapshot as <code>[source file name].snapshot</code> in the
+     * same directory as the source file.
+     *
+     * @param delegate The loader that reads and writes the text file.
+     * @param source The text file the delegate loads from.
+     */
+    public SnapshotConfigurationLoader(ConfigurationLoader<N> delegate, Path source) {
+        this(delegate, source, source.resolveSibling(source.getFileName() + ".snapshot"));
+    }
+
+    /**
+     * Wraps a {@link ConfigurationLoader}.
+     *
+     * @param delegate The loader that reads and writes the text file.
+     * @param source The text file the delegate loads from.
+     * @param snapshot The file to store the snapshot in.
+     */
+    public SnapshotConfigurationLoader(ConfigurationLoader<N> delegate, Path source, Path snapshot) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.source = Preconditions.checkNotNull(source);
+        this.snapshot = Preconditions.checkNotNull(snapshot);
+    }
+
+    /**
+     * Gets whether the last call to {@link #load(ConfigurationOptions)} was served from the snapshot.
+     *
+     * @return <code>true</code> if so.
+     */
+    public boolean wasLoadedFromSnapshot() {
+        return this.loadedFromSnapshot;
+    }
+
+    @Override
+    public ConfigurationOptions getDefaultOptions() {
+        return this.delegate.getDefaultOptions();
+    }
+
+    @Override
+    public N load() throws IOException {
+        return load(getDefaultOptions());
+    }
+
+    @Override
+    public N load(ConfigurationOptions options) throws IOException {
+        this.loadedFromSnapshot = false;
+        if (!Files.isRegularFile(this.source)) {
+            return this.delegate.load(options);
+        }
+
+        byte[] hash = hash(this.source);
+        Optional<N> fromSnapshot = readSnapshot(hash, options);
+        if (fromSnapshot.isPresent()) {
+            this.loadedFromSnapshot = true;
+            return fromSnapshot.get();
+        }
+
+        N node = this.delegate.load(options);
+        writeSnapshot(hash, node);
+        return node;
+    }
+
+    @Override
+    public void save(ConfigurationNode node) throws IOException {
+        this.delegate.save(node);
+    }
+
+    @Override
+    public N createEmptyNode() {
+        return createEmptyNode(getDefaultOptions());
+    }
+
+    @Override
+    public N createEmptyNode(ConfigurationOptions options) {
+        return this.delegate.createEmptyNode(options);
+    }
+
+    @Override
+    public boolean canLoad() {
+        return this.delegate.canLoad();
+    }
+
+    @Override
+    public boolean canSave() {
+        return this.delegate.canSave();
+    }
+
+    private Optional<N> readSnapshot(byte[] hash, ConfigurationOptions options) {
+        if (!Files.isRegularFile(this.snapshot)) {
+            return Optional.empty();
+        }
+
+        // Read in full, so that lengths in the snapshot can be checked against what is left of it.
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(this.snapshot)))) {
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                return Optional.empty();
+            }
+
+            byte[] snapshotHash = new byte[in.readUnsignedByte()];
+            in.readFully(snapshotHash);
+            if (!Arrays.equals(hash, snapshotHash)) {
+                return Optional.empty();
+            }
+
+            N node = this.delegate.createEmptyNode(options);
+            readNode(in, node);
+            return Optional.of(node);
+        } catch (IOException | RuntimeException e) {
+            // A broken snapshot is just a cache miss.
+            return Optional.empty();
+        }
+    }
+
+    private void writeSnapshot(byte[] hash, ConfigurationNode node) {
+        Path temp = this.snapshot.resolveSibling(this.snapshot.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeByte(FORMAT_VERSION);
+                out.writeByte(hash.length);
+                out.write(hash);
+                writeNode(out, node);
+            }
+
+            Files.move(temp, this.snapshot, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | IllegalArgumentException e) {
+            // We couldn't snapshot this tree, so make sure we don't leave an old one behind.
+            try {
+                Files.deleteIfExists(temp);
+                Files.deleteIfExists(this.snapshot);
+            } catch (IOException ignored) {
+                // Nothing more we can do, the hash will not match next time anyway.
+            }
+        }
+    }
+
+    private static void writeNode(DataOutputStream out, ConfigurationNode node) throws IOException {
+        String comment = null;
+        if (node instanceof CommentedConfigurationNode) {
+            comment = ((CommentedConfigurationNode) node).getComment().orElse(null);
+        }
+
+        writeNullableString(out, comment);
+        if (node.hasMapChildren()) {
+            Map<Object, ? extends ConfigurationNode> children = node.getChildrenMap();
+            out.writeByte(TYPE_MAP);
+            out.writeInt(children.size());
+            for (Map.Entry<Object, ? extends ConfigurationNode> entry : children.entrySet()) {
+                writeScalar(out, entry.getKey());
+                writeNode(out, entry.getValue());
+            }
+        } else if (node.hasListChildren()) {
+            List<? extends ConfigurationNode> children = node.getChildrenList();
+            out.writeByte(TYPE_LIST);
+            out.writeInt(children.size());
+            for (ConfigurationNode child : children) {
+                writeNode(out, child);
+            }
+        } else {
+            writeScalar(out, node.getValue());
+        }
+    }
+
+    private static void readNode(DataInputStream in, ConfigurationNode node) throws IOException {
+        String comment = readNullableString(in);
+        if (comment != null && node instanceof CommentedConfigurationNode) {
+            ((CommentedConfigurationNode) node).setComment(comment);
+        }
+
+        byte type = in.readByte();
+        if (type == TYPE_MAP) {
+            // Each entry is at least a key type, a comment flag and a value type.
+            int size = readLength(in, 3);
+            node.setValue(Collections.emptyMap());
+            for (int i = 0; i < size; i++) {
+                readNode(in, node.getNode(readScalar(in, in.readByte())));
+            }
+        } else if (type == TYPE_LIST) {
+            int size = readLength(in, 2);
+            node.setValue(Collections.emptyList());
+            for (int i = 0; i < size; i++) {
+                readNode(in, node.getAppendedNode());
+            }
+        } else {
+            Object value = readScalar(in, type);
+            if (value != null) {
+                node.setValue(value);
+            }
+        }
+    }
+
+    private static void writeScalar(DataOutputStream out, @Nullable Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String) {
+            out.writeByte(TYPE_STRING);
+            writeString(out, (String) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(TYPE_INT);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Double) {
+            out.writeByte(TYPE_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(TYPE_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Boolean) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else {
+            throw new IllegalArgumentException("Cannot snapshot a value of type " + value.getClass().getName());
+        }
+    }
+
+    @Nullable
+    private static Object readScalar(DataInputStream in, byte type) throws IOException {
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return readString(in);
+            case TYPE_INT:
+                return in.readInt();
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_DOUBLE:
+                return in.readDouble();
+            case TYPE_FLOAT:
+                return in.readFloat();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            default:
+                throw new IOException("Unknown value type " + type + " in snapshot");
+        }
+    }
+
+    private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            writeString(out, value);
+        }
+    }
+
+    @Nullable
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? readString(in) : null;
+    }
+
+    // writeUTF is limited to 64k, which long comments or values could exceed.
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readLength(in, 1)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the number of elements that follow, checking that there is room for them in the rest of the snapshot, so
+     * that a corrupt length cannot make us allocate more than the snapshot holds.
+     */
+    private static int readLength(DataInputStream in, int minimumBytesEach) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || (long) length * minimumBytesEach > in.available()) {
+            throw new IOException("Length " + length + " is out of range in snapshot");
+        }
+
+        return length;
+    }
+
+    private static byte[] hash(Path file) throws IOException {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to support SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -38,6 +38,11 @@ public enum ConstructionPhase {
      */
     ENABLED,
 
+    /**
+     * The modules have been shut down, and the holder can no longer be used.
+     */
+    SHUTDOWN,
+
     /**
      * QuickStart Module Loader encountered an unrecoverable error and will not continue loading.
      */
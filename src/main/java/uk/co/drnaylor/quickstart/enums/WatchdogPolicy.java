@@ -0,0 +1,29 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.enums;
+
+/**
+ * What to do when a module has not completed an enable phase by its deadline.
+ */
+public enum WatchdogPolicy {
+
+    /**
+     * Log where the module is stuck, then keep waiting for it. Phases run on the loading thread.
+     */
+    KEEP_WAITING,
+
+    /**
+     * Log where the module is stuck, interrupt it, and mark it as {@link ModulePhase#ERRORED}. Loading continues
+     * unless the module holder has been told to fail on one error. Phases run on a worker thread, and one that ignores
+     * its interrupt keeps running in the background.
+     */
+    ERROR_MODULE,
+
+    /**
+     * Log where the module is stuck, interrupt it, and abort loading. Phases run on a worker thread, as with
+     * {@link #ERROR_MODULE}.
+     */
+    ABORT
+}
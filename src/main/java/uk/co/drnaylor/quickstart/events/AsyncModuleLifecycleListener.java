@@ -0,0 +1,128 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.events;
+
+import com.google.common.base.Preconditions;
+import uk.co.drnaylor.quickstart.DefaultLogger;
+import uk.co.drnaylor.quickstart.LoggerProxy;
+import uk.co.drnaylor.quickstart.ModuleMetadata;
+import uk.co.drnaylor.quickstart.config.AbstractConfigAdapter;
+import uk.co.drnaylor.quickstart.util.BackgroundQueue;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ModuleLifecycleListener} that passes events to another listener on a background thread.
+ *
+ * <p>
+ *     Events are delivered in order through a bounded queue. If the queue is full, the loading thread waits until
+ *     there is space, so a slow listener slows loading down rather than losing events. Each event carries a
+ *     {@link ModuleMetadata#snapshot() snapshot} of the module's metadata as it was when the event happened, so the
+ *     phase and status that the listener sees are those of the event, not of whatever the module is doing by the time
+ *     the event is delivered.
+ * </p>
+ *
+ * <p>
+ *     {@link #close()} should be called when no more events are expected, to deliver any outstanding events. Events
+ *     that happen while the listener is closing are either delivered by it or on the calling thread, never lost. If
+ *     the wrapped listener throws, the failure is logged, and later events are still delivered.
+ * </p>
+ */
+public final class AsyncModuleLifecycleListener implements ModuleLifecycleListener, AutoCloseable {
+
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private final ModuleLifecycleListener delegate;
+    private final BackgroundQueue dispatcher;
+
+    /**
+     * Creates an {@link AsyncModuleLifecycleListener} with the default queue capacity.
+     *
+     * @param delegate The listener to pass events to.
+     */
+    public AsyncModuleLifecycleListener(ModuleLifecycleListener delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an {@link AsyncModuleLifecycleListener}.
+     *
+     * @param delegate The listener to pass events to.
+     * @param capacity The number of events that can be waiting to be delivered.
+     */
+    public AsyncModuleLifecycleListener(ModuleLifecycleListener delegate, int capacity) {
+        this(delegate, capacity, DefaultLogger.INSTANCE);
+    }
+
+    /**
+     * Creates an {@link AsyncModuleLifecycleListener}.
+     *
+     * @param delegate The listener to pass events to.
+     * @param capacity The number of events that can be waiting to be delivered.
+     * @param logger The {@link LoggerProxy} to report failures of the wrapped listener to.
+     */
+    public AsyncModuleLifecycleListener(ModuleLifecycleListener delegate, int capacity, LoggerProxy logger) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+        Preconditions.checkNotNull(logger);
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.dispatcher = new BackgroundQueue("QuickStart Lifecycle Events", capacity, true,
+                e -> logger.error("A module lifecycle listener failed: " + e));
+    }
+
+    @Override
+    public void onDiscovered(ModuleMetadata<?> module) {
+        ModuleMetadata<?> snapshot = module.snapshot();
+        submit(() -> this.delegate.onDiscovered(snapshot));
+    }
+
+    @Override
+    public void onConstructed(ModuleMetadata<?> module) {
+        ModuleMetadata<?> snapshot = module.snapshot();
+        submit(() -> this.delegate.onConstructed(snapshot));
+    }
+
+    @Override
+    public void onConfigAttached(ModuleMetadata<?> module, AbstractConfigAdapter<?> adapter) {
+        ModuleMetadata<?> snapshot = module.snapshot();
+        submit(() -> this.delegate.onConfigAttached(snapshot, adapter));
+    }
+
+    @Override
+    public void onPhaseEntered(ModuleMetadata<?> module, String phase) {
+        ModuleMetadata<?> snapshot = module.snapshot();
+        submit(() -> this.delegate.onPhaseEntered(snapshot, phase));
+    }
+
+    @Override
+    public void onEnabled(ModuleMetadata<?> module) {
+        ModuleMetadata<?> snapshot = module.snapshot();
+        submit(() -> this.delegate.onEnabled(snapshot));
+    }
+
+    @Override
+    public void onDisabled(ModuleMetadata<?> module) {
+        ModuleMetadata<?> snapshot = module.snapshot();
+        submit(() -> this.delegate.onDisabled(snapshot));
+    }
+
+    @Override
+    public void onErrored(ModuleMetadata<?> module, @Nullable Throwable cause) {
+        ModuleMetadata<?> snapshot = module.snapshot();
+        submit(() -> this.delegate.onErrored(snapshot, cause));
+    }
+
+    /**
+     * Stops the background thread, once every event that is waiting has been delivered. Events received after this
+     * call are delivered on the calling thread.
+     */
+    @Override
+    public void close() {
+        this.dispatcher.close();
+    }
+
+    private void submit(Runnable event) {
+        this.dispatcher.submit(event);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.events;
+
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.ModuleMetadata;
+import uk.co.drnaylor.quickstart.config.AbstractConfigAdapter;
+
+import javax.annotation.Nullable;
+
+/**
+ * Receives lifecycle events from a {@link ModuleHolder}.
+ *
+ * <p>
+ *     Each event is a method call carrying the {@link ModuleMetadata} of the module concerned, so no event objects are
+ *     created when listeners are called on the loading thread. All methods do nothing by default, so listeners only
+ *     need to override the events they care about.
+ * </p>
+ *
+ * <p>
+ *     Listeners are called synchronously on the thread that is doing the work the event is about, so should return
+ *     quickly. Wrap slow listeners in an {@link AsyncModuleLifecycleListener}. Without a phase executor, that is the
+ *     thread that is loading the modules. With one, set by {@link ModuleHolder.Builder#setPhaseExecutor}, events
+ *     for modules that do not depend on each other can be fired from several of its threads at once, so listeners
+ *     must be thread-safe.
+ * </p>
+ */
+public interface ModuleLifecycleListener {
+
+    /**
+     * Called when a module has been discovered and its dependencies resolved.
+     *
+     * @param module The module.
+     */
+    default void onDiscovered(ModuleMetadata<?> module) {}
+
+    /**
+     * Called when a module has been constructed.
+     *
+     * @param module The module.
+     */
+    default void onConstructed(ModuleMetadata<?> module) {}
+
+    /**
+     * Called when a module's configuration adapter has been attached to the system config.
+     *
+     * @param module The module.
+     * @param adapter The adapter that was attached.
+     */
+    default void onConfigAttached(ModuleMetadata<?> module, AbstractConfigAdapter<?> adapter) {}
+
+    /**
+     * Called when a module is about to enter an enable phase.
+     *
+     * @param module The module.
+     * @param phase The name of the phase.
+     */
+    default void onPhaseEntered(ModuleMetadata<?> module, String phase) {}
+
+    /**
+     * Called when a module has been enabled.
+     *
+     * @param module The module.
+     */
+    default void onEnabled(ModuleMetadata<?> module) {}
+
+    /**
+     * Called when a module has been disabled, either before it was enabled or at runtime.
+     *
+     * @param module The module.
+     */
+    default void onDisabled(ModuleMetadata<?> module) {}
+
+    /**
+     * Called when a module has errored.
+     *
+     * @param module The module.
+     * @param cause The cause of the error, if there was one.
+     */
+    default void onErrored(ModuleMetadata<?> module, @Nullable Throwable cause) {}
+}
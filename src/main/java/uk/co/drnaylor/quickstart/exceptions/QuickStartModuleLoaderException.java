@@ -44,6 +44,16 @@ public abstract class QuickStartModuleLoaderException extends Exception {
         }
     }
 
+    /**
+     * A module did not complete an enable phase by its deadline.
+     */
+    public static class Timeout extends Enabling {
+
+        public Timeout(Class<? extends Module> module, String message, Exception innerException) {
+            super(module, message, innerException);
+        }
+    }
+
     public static class Disabling extends QuickStartModuleLoaderException {
         public Disabling(Class<? extends Module> module, String message, Exception innerException) {
             super(module, message, innerException);
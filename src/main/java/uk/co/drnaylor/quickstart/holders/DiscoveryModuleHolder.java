@@ -10,14 +10,23 @@ import com.google.common.collect.Sets;
 import uk.co.drnaylor.quickstart.Module;
 import uk.co.drnaylor.quickstart.ModuleHolder;
 import uk.co.drnaylor.quickstart.ModuleMetadata;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
 import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleDiscoveryException;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.DiscoveryScope;
 import uk.co.drnaylor.quickstart.holders.discoverystrategies.Strategy;
 import uk.co.drnaylor.quickstart.loaders.ModuleConstructor;
 import uk.co.drnaylor.quickstart.loaders.SimpleModuleConstructor;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+import javax.annotation.Nullable;
+
 /**
  * The Discovery module container tries to load and instantiate modules that are
  * discovered using reflection. It requires a root package to scan - it will
@@ -58,20 +67,31 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
     private final ModuleConstructor<M> constructor;
 
     /**
-     * The root of the package to scan.
+     * The packages to scan.
      */
-    private final String packageLocation;
+    private final DiscoveryScope scope;
 
     /**
-     * The classes that were loaded by the module loader.
+     * The classes that were loaded by the module loader. Discovery may fill this in on the phase executor, while other
+     * threads read it, so it is a concurrent set.
      */
-    private final Set<Class<?>> loadedClasses = Sets.newHashSet();
+    private final Set<Class<?>> loadedClasses = Sets.newConcurrentHashSet();
 
     /**
      * The strategy for loading classes on the classpath.
      */
     private final Strategy strategy;
 
+    /**
+     * Whether disableable modules get their own {@link ModuleClassLoader}.
+     */
+    private final boolean isolateModules;
+
+    /**
+     * The shared scan to take modules from, instead of scanning.
+     */
+    @Nullable private final ModuleCatalog catalog;
+
     /**
      * Constructs a {@link ModuleHolder} and starts discovery of the modules.
      *
@@ -81,8 +101,10 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
         super(builder);
         this.classLoader = builder.classLoader;
         this.constructor = builder.constructor;
-        this.packageLocation = builder.packageToScan;
+        this.scope = builder.builtScope;
         this.strategy = builder.strategy;
+        this.isolateModules = builder.isolateModules;
+        this.catalog = builder.catalog;
     }
 
     /**
@@ -91,10 +113,16 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
     @Override
     protected Set<Class<? extends M>> discoverModules() throws Exception {
         // Get the modules out.
-        loadedClasses.addAll(this.strategy.discover(packageLocation, classLoader));
-        final Class<M> basicClass = getBaseClass();
-        Set<Class<? extends M>> modules = loadedClasses.stream().filter(basicClass::isAssignableFrom)
-                .map(x -> (Class<? extends M>) x.asSubclass(basicClass)).collect(Collectors.toSet());
+        Set<Class<? extends M>> modules;
+        if (this.catalog != null) {
+            loadedClasses.addAll(this.catalog.getClasses());
+            modules = this.catalog.getModules(getBaseClass());
+        } else {
+            loadedClasses.addAll(this.strategy.discover(this.scope, classLoader));
+            final Class<M> basicClass = getBaseClass();
+            modules = loadedClasses.stream().filter(basicClass::isAssignableFrom)
+                    .map(x -> (Class<? extends M>) x.asSubclass(basicClass)).collect(Collectors.toSet());
+        }
 
         if (modules.isEmpty()) {
             throw new QuickStartModuleDiscoveryException("No modules were found", null);
@@ -103,13 +131,113 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
         return modules;
     }
 
+    /**
+     * Starts discovery of modules, passing each one on as soon as the {@link Strategy} finds it.
+     */
+    @Override
+    protected void discoverModules(Consumer<Class<? extends M>> sink) throws Exception {
+        if (this.catalog != null) {
+            super.discoverModules(sink);
+            return;
+        }
+
+        final Class<M> basicClass = getBaseClass();
+        AtomicBoolean found = new AtomicBoolean();
+        this.strategy.discover(this.scope, classLoader, x -> {
+            loadedClasses.add(x);
+            if (basicClass.isAssignableFrom(x)) {
+                found.set(true);
+                sink.accept(x.asSubclass(basicClass));
+            }
+        });
+
+        if (!found.get()) {
+            throw new QuickStartModuleDiscoveryException("No modules were found", null);
+        }
+    }
+
+    @Override
+    @Nullable
+    protected ModuleData getModuleData(Class<? extends M> moduleClass) {
+        if (this.catalog != null && this.catalog.getClasses().contains(moduleClass)) {
+            return this.catalog.getModuleData(moduleClass);
+        }
+
+        return super.getModuleData(moduleClass);
+    }
+
+    @Override
+    protected Class<?> loadPlannedClass(String className) throws ClassNotFoundException {
+        Class<?> plannedClass = Class.forName(className, false, this.classLoader);
+        loadedClasses.add(plannedClass);
+        return plannedClass;
+    }
+
+    @Override
+    protected Collection<Class<?>> getDiscoveredClasses() {
+        return this.loadedClasses;
+    }
+
     @Override
     protected M constructModule(ModuleMetadata<? extends M> spec) throws Exception {
+        if (isIsolated(spec)) {
+            return constructIsolated(spec.getModuleClass(), this.classLoader);
+        }
+
         return constructor.constructModule(spec.getModuleClass());
     }
 
+    @Override
+    protected boolean isModuleUsableAs(ModuleMetadata<? extends M> spec, Class<?> type) {
+        // An isolated module is not an instance of any class that its own class loader defines again.
+        return super.isModuleUsableAs(spec, type)
+                && !(isIsolated(spec) && ModuleClassLoader.isIsolated(spec.getModuleClass(), getSharedClasses(), type.getName()));
+    }
+
+    private boolean isIsolated(ModuleMetadata<? extends M> spec) {
+        return this.isolateModules && getDisableableClass().isAssignableFrom(spec.getModuleClass());
+    }
+
+    private Set<String> getSharedClasses() {
+        return ImmutableSet.of(getBaseClass().getName(), getDisableableClass().getName());
+    }
+
+    /**
+     * Loads a new version of an enabled, runtime disableable module in a new {@link ClassLoader}, and swaps it in
+     * using {@link #hotSwapModule(String, Module)}. The module is constructed before the swap starts.
+     *
+     * <p>The classes in the module's package (and its subpackages) are read from the given source, all other classes
+     * are loaded by this holder's {@link ClassLoader} as usual. The new instance is therefore not an instance of the
+     * module class that was discovered, and should be looked up as a type that is shared with this holder, such as the
+     * disableable module type.</p>
+     *
+     * @param moduleName The ID of the module to swap.
+     * @param bytecodeSource The {@link ClassLoader} to read the new version of the module from, such as a
+     *                       {@link java.net.URLClassLoader} for an updated jar.
+     * @throws Exception if the new version could not be constructed, or the module could not be swapped.
+     */
+    public void hotSwapModule(String moduleName, ClassLoader bytecodeSource) throws Exception {
+        Optional<M> current = getModule(moduleName);
+        Preconditions.checkState(current.isPresent(), "Module " + moduleName + " is not enabled.");
+        M replacement = constructIsolated(current.get().getClass(), bytecodeSource);
+        Preconditions.checkState(getDisableableClass().isInstance(replacement), "Module " + moduleName + " cannot be swapped.");
+        hotSwapModule(moduleName, getDisableableClass().cast(replacement));
+    }
+
+    private M constructIsolated(Class<?> moduleClass, ClassLoader bytecodeSource) throws Exception {
+        ClassLoader moduleClassLoader = new ModuleClassLoader(moduleClass, this.classLoader, bytecodeSource, getSharedClasses());
+        return constructor.constructModule(moduleClassLoader.loadClass(moduleClass.getName()).asSubclass(getBaseClass()));
+    }
+
+    @Override
+    protected boolean releaseDisabledModules() {
+        return this.isolateModules;
+    }
+
     /**
      * Gets the {@link Class}es that were scanned during the module discovery phase.
+     * If the modules were discovered from a {@link uk.co.drnaylor.quickstart.BootPlan}, only the module classes
+     * are included.
      *
      * @return Gets a {@link Set} of the loaded classes.
      */
@@ -119,10 +247,14 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
 
     public final static class Builder<M extends Module, D extends M>
             extends ModuleHolder.Builder<M, D, DiscoveryModuleHolder<M, D>, Builder<M, D>> {
-        private String packageToScan;
+        private final Set<String> packagesToScan = new LinkedHashSet<>();
+        @Nullable private DiscoveryScope scope = null;
+        private DiscoveryScope builtScope;
         private ModuleConstructor<M> constructor = new SimpleModuleConstructor<>();
         private ClassLoader classLoader;
         private Strategy strategy = Strategy.DEFAULT;
+        private boolean isolateModules = false;
+        @Nullable private ModuleCatalog catalog = null;
 
         /**
          * Creates a builder with the given type of {@link Module}.
@@ -141,7 +273,31 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
          * @return This {@link ModuleHolder.Builder}, for chaining.
          */
         public Builder<M, D> setPackageToScan(String packageToScan) {
-            this.packageToScan = packageToScan;
+            this.packagesToScan.clear();
+            return addPackageToScan(packageToScan);
+        }
+
+        /**
+         * Adds a root package to scan. All root packages are scanned in one pass over the classpath, if the
+         * {@link Strategy} supports it.
+         *
+         * @param packageToScan The root of the package.
+         * @return This {@link ModuleHolder.Builder}, for chaining.
+         */
+        public Builder<M, D> addPackageToScan(String packageToScan) {
+            this.packagesToScan.add(Preconditions.checkNotNull(packageToScan));
+            return this;
+        }
+
+        /**
+         * Sets the {@link DiscoveryScope} to scan, which can also exclude packages and classes, and restrict the scan
+         * to particular code sources. This takes precedence over the packages set on this builder.
+         *
+         * @param scope The {@link DiscoveryScope}, or {@code null} to scan the packages set on this builder.
+         * @return This {@link ModuleHolder.Builder}, for chaining.
+         */
+        public Builder<M, D> setDiscoveryScope(@Nullable DiscoveryScope scope) {
+            this.scope = scope;
             return this;
         }
 
@@ -182,6 +338,40 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
             return this;
         }
 
+        /**
+         * Sets whether each disableable module is loaded by its own child {@link ClassLoader}.
+         *
+         * <p>When isolated, the classes in a disableable module's package (and its subpackages) are loaded again by a
+         * class loader for that module. When the module is disabled at runtime, the holder releases the module, so
+         * that the instance, the class loader and its classes can be garbage collected. If the module is enabled
+         * again, it is constructed from a new class loader.</p>
+         *
+         * <p>Each isolated module should therefore have a package to itself. The copy of the module class that was
+         * loaded during discovery is not initialised, but remains loaded. As modules are not instances of the classes
+         * in their own package, a {@link uk.co.drnaylor.quickstart.ModuleKey} for an isolated module can only be
+         * typed as a class from outside of it.</p>
+         *
+         * @param isolateModules <code>true</code> to isolate disableable modules.
+         * @return This {@link ModuleHolder.Builder}, for chaining.
+         */
+        public Builder<M, D> setModuleIsolation(boolean isolateModules) {
+            this.isolateModules = isolateModules;
+            return this;
+        }
+
+        /**
+         * Sets a {@link ModuleCatalog} to take the modules from, so that this holder does not scan the classpath
+         * itself. The {@link DiscoveryScope} and the {@link ClassLoader} are those of the catalog, and the
+         * {@link Strategy} is not used.
+         *
+         * @param catalog The {@link ModuleCatalog}, or {@code null} to scan as usual.
+         * @return This {@link ModuleHolder.Builder}, for chaining.
+         */
+        public Builder<M, D> setModuleCatalog(@Nullable ModuleCatalog catalog) {
+            this.catalog = catalog;
+            return this;
+        }
+
         @Override
         protected Builder<M, D> getThis() {
             return this;
@@ -194,7 +384,20 @@ public final class DiscoveryModuleHolder<M extends Module, D extends M> extends
          * @throws QuickStartModuleDiscoveryException if the configuration loader cannot load data from the file.
          */
         public DiscoveryModuleHolder<M, D> build() throws QuickStartModuleDiscoveryException {
-            Preconditions.checkNotNull(packageToScan);
+            if (catalog != null) {
+                builtScope = catalog.getScope();
+                classLoader = catalog.getClassLoader();
+            } else if (scope != null) {
+                builtScope = scope;
+            } else if (!packagesToScan.isEmpty()) {
+                DiscoveryScope.Builder scopeBuilder = DiscoveryScope.builder();
+                packagesToScan.forEach(scopeBuilder::addPackage);
+                builtScope = scopeBuilder.build();
+            } else {
+                builtScope = null;
+            }
+
+            Preconditions.checkNotNull(builtScope);
 
             if (constructor == null) {
                 constructor = new SimpleModuleConstructor<>();
@@ -0,0 +1,154 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import uk.co.drnaylor.quickstart.Module;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.DiscoveryScope;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.Strategy;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.Nullable;
+
+/**
+ * The result of scanning a package for modules, which can be shared between any number of
+ * {@link DiscoveryModuleHolder}s using {@link DiscoveryModuleHolder.Builder#setModuleCatalog(ModuleCatalog)}.
+ *
+ * <p>
+ *     The package is scanned once, when the catalog is created, and the {@link ModuleData} of every {@link Module} in
+ *     it is read once. Each holder then picks out the modules of its own type. A host that runs several holders over
+ *     the same classes should create one catalog and keep it for as long as those holders may be created.
+ * </p>
+ */
+public final class ModuleCatalog {
+
+    /**
+     * Scans a package for classes using the {@link Strategy#DEFAULT} strategy.
+     *
+     * @param packageToScan The root of the package to scan.
+     * @param classLoader The {@link ClassLoader} to scan.
+     * @return The {@link ModuleCatalog}.
+     * @throws Exception if the package could not be scanned.
+     */
+    public static ModuleCatalog scan(String packageToScan, ClassLoader classLoader) throws Exception {
+        return scan(packageToScan, classLoader, Strategy.DEFAULT);
+    }
+
+    /**
+     * Scans a package for classes.
+     *
+     * @param packageToScan The root of the package to scan.
+     * @param classLoader The {@link ClassLoader} to scan.
+     * @param strategy The {@link Strategy} to scan with.
+     * @return The {@link ModuleCatalog}.
+     * @throws Exception if the package could not be scanned.
+     */
+    public static ModuleCatalog scan(String packageToScan, ClassLoader classLoader, Strategy strategy) throws Exception {
+        return scan(DiscoveryScope.of(packageToScan), classLoader, strategy);
+    }
+
+    /**
+     * Scans a {@link DiscoveryScope} for classes.
+     *
+     * @param scope The {@link DiscoveryScope} to scan.
+     * @param classLoader The {@link ClassLoader} to scan.
+     * @param strategy The {@link Strategy} to scan with.
+     * @return The {@link ModuleCatalog}.
+     * @throws Exception if the scope could not be scanned.
+     */
+    public static ModuleCatalog scan(DiscoveryScope scope, ClassLoader classLoader, Strategy strategy) throws Exception {
+        Preconditions.checkNotNull(scope);
+        Preconditions.checkNotNull(classLoader);
+        return new ModuleCatalog(scope, classLoader, strategy.discover(scope, classLoader));
+    }
+
+    private final DiscoveryScope scope;
+    private final ClassLoader classLoader;
+    private final ImmutableSet<Class<?>> classes;
+    private final ImmutableSet<Class<? extends Module>> modules;
+    private final ImmutableMap<Class<?>, ModuleData> moduleData;
+    private final Map<Class<?>, Set<?>> modulesByType = new ConcurrentHashMap<>();
+
+    private ModuleCatalog(DiscoveryScope scope, ClassLoader classLoader, Set<Class<?>> classes) {
+        this.scope = scope;
+        this.classLoader = classLoader;
+        this.classes = ImmutableSet.copyOf(classes);
+
+        ImmutableSet.Builder<Class<? extends Module>> modules = ImmutableSet.builder();
+        ImmutableMap.Builder<Class<?>, ModuleData> moduleData = ImmutableMap.builder();
+        for (Class<?> c : this.classes) {
+            if (Module.class.isAssignableFrom(c)) {
+                modules.add(c.asSubclass(Module.class));
+                ModuleData data = c.getAnnotation(ModuleData.class);
+                if (data != null) {
+                    moduleData.put(c, data);
+                }
+            }
+        }
+
+        this.modules = modules.build();
+        this.moduleData = moduleData.build();
+    }
+
+    /**
+     * Gets the {@link DiscoveryScope} that was scanned.
+     *
+     * @return The {@link DiscoveryScope}.
+     */
+    public DiscoveryScope getScope() {
+        return this.scope;
+    }
+
+    /**
+     * Gets the {@link ClassLoader} that was scanned.
+     *
+     * @return The {@link ClassLoader}.
+     */
+    public ClassLoader getClassLoader() {
+        return this.classLoader;
+    }
+
+    /**
+     * Gets every class that was found.
+     *
+     * @return The classes.
+     */
+    public Set<Class<?>> getClasses() {
+        return this.classes;
+    }
+
+    /**
+     * Gets the modules that are of the given type.
+     *
+     * @param moduleType The type of module.
+     * @param <M> The type of module.
+     * @return The module classes.
+     */
+    @SuppressWarnings("unchecked")
+    public <M extends Module> Set<Class<? extends M>> getModules(Class<M> moduleType) {
+        return (Set<Class<? extends M>>) this.modulesByType.computeIfAbsent(moduleType, k -> {
+            ImmutableSet.Builder<Class<? extends M>> builder = ImmutableSet.builder();
+            this.modules.stream().filter(moduleType::isAssignableFrom).forEach(x -> builder.add(x.asSubclass(moduleType)));
+            return builder.build();
+        });
+    }
+
+    /**
+     * Gets the {@link ModuleData} of a module in this catalog.
+     *
+     * @param moduleClass The module class.
+     * @return The {@link ModuleData}, or {@code null} if the class is not annotated, or not in this catalog.
+     */
+    @Nullable
+    public ModuleData getModuleData(Class<?> moduleClass) {
+        return this.moduleData.get(moduleClass);
+    }
+}
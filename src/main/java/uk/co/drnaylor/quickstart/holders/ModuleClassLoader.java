@@ -0,0 +1,134 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.ProtectionDomain;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * A child-first {@link ClassLoader} that defines its own copy of the classes in a module's package (and its
+ * subpackages), reading the bytecode from the parent, or from another source when a new version of the module is
+ * being loaded. Everything else, and the classes that must be shared with the holder, are loaded by the parent.
+ *
+ * <p>Once the module instance is released, the loader and the classes it defined can be garbage collected.</p>
+ */
+final class ModuleClassLoader extends ClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final String moduleClassName;
+    private final String packagePrefix;
+    private final Set<String> sharedClasses;
+    private final ProtectionDomain protectionDomain;
+    private final ClassLoader bytecodeSource;
+
+    /**
+     * Creates a {@link ModuleClassLoader}.
+     *
+     * @param moduleClass The module class, as loaded by the parent.
+     * @param parent The parent {@link ClassLoader}.
+     * @param sharedClasses The names of classes that must always come from the parent.
+     */
+    ModuleClassLoader(Class<?> moduleClass, ClassLoader parent, Set<String> sharedClasses) {
+        this(moduleClass, parent, parent, sharedClasses);
+    }
+
+    /**
+     * Creates a {@link ModuleClassLoader} that reads the module's classes from a different source to the parent.
+     *
+     * @param moduleClass The module class, as loaded by the parent.
+     * @param parent The parent {@link ClassLoader}.
+     * @param bytecodeSource The {@link ClassLoader} to read the module's classes from.
+     * @param sharedClasses The names of classes that must always come from the parent.
+     */
+    ModuleClassLoader(Class<?> moduleClass, ClassLoader parent, ClassLoader bytecodeSource, Set<String> sharedClasses) {
+        super(parent);
+        this.bytecodeSource = bytecodeSource;
+        this.moduleClassName = moduleClass.getName();
+        this.packagePrefix = getPackagePrefix(this.moduleClassName);
+        this.sharedClasses = ImmutableSet.copyOf(sharedClasses);
+        this.protectionDomain = moduleClass.getProtectionDomain();
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (!isIsolated(name)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> c = findLoadedClass(name);
+            if (c == null) {
+                c = defineFromSource(name);
+                if (c == null) {
+                    return super.loadClass(name, resolve);
+                }
+            }
+
+            if (resolve) {
+                resolveClass(c);
+            }
+
+            return c;
+        }
+    }
+
+    private boolean isIsolated(String name) {
+        return isIsolated(this.moduleClassName, this.packagePrefix, this.sharedClasses, name);
+    }
+
+    /**
+     * Gets whether a {@link ModuleClassLoader} for the given module would define its own copy of a class.
+     *
+     * @param moduleClass The module class, as loaded by the parent.
+     * @param sharedClasses The names of classes that must always come from the parent.
+     * @param name The name of the class.
+     * @return <code>true</code> if so.
+     */
+    static boolean isIsolated(Class<?> moduleClass, Set<String> sharedClasses, String name) {
+        return isIsolated(moduleClass.getName(), getPackagePrefix(moduleClass.getName()), sharedClasses, name);
+    }
+
+    private static boolean isIsolated(String moduleClassName, String packagePrefix, Set<String> sharedClasses, String name) {
+        if (sharedClasses.contains(name)) {
+            return false;
+        }
+
+        if (packagePrefix.isEmpty()) {
+            // Never take over the default package, just the module and its nested classes.
+            return name.equals(moduleClassName) || name.startsWith(moduleClassName + "$");
+        }
+
+        return name.startsWith(packagePrefix);
+    }
+
+    private static String getPackagePrefix(String className) {
+        int lastDot = className.lastIndexOf('.');
+        return lastDot == -1 ? "" : className.substring(0, lastDot + 1);
+    }
+
+    @Nullable
+    private Class<?> defineFromSource(String name) throws ClassNotFoundException {
+        try (InputStream in = this.bytecodeSource.getResourceAsStream(name.replace('.', '/') + ".class")) {
+            if (in == null) {
+                return null;
+            }
+
+            byte[] bytecode = ByteStreams.toByteArray(in);
+            return defineClass(name, bytecode, 0, bytecode.length, this.protectionDomain);
+        } catch (IOException e) {
+            throw new ClassNotFoundException(name, e);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders.discoverystrategies;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import javax.annotation.Nullable;
+
+/**
+ * What a {@link Strategy} should scan: one or more root packages, minus any excluded packages or classes, optionally
+ * restricted to classes from particular code sources, such as a single jar.
+ *
+ * <p>Every check works on class names and resource locations, so strategies can make them before loading a class.</p>
+ */
+public final class DiscoveryScope {
+
+    /**
+     * Creates a {@link DiscoveryScope} that scans one package and its subpackages.
+     *
+     * @param packageToScan The package.
+     * @return The {@link DiscoveryScope}.
+     */
+    public static DiscoveryScope of(String packageToScan) {
+        return builder().addPackage(packageToScan).build();
+    }
+
+    /**
+     * Gets a {@link Builder} for a {@link DiscoveryScope}.
+     *
+     * @return The {@link Builder}.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private final ImmutableSet<String> packages;
+    private final ImmutableSet<String> exclusions;
+    private final ImmutableSet<String> codeSources;
+
+    private DiscoveryScope(Builder builder) {
+        this.packages = ImmutableSet.copyOf(builder.packages);
+        this.exclusions = ImmutableSet.copyOf(builder.exclusions);
+        this.codeSources = ImmutableSet.copyOf(builder.codeSources);
+    }
+
+    /**
+     * Gets the root packages to scan.
+     *
+     * @return The packages.
+     */
+    public Set<String> getPackages() {
+        return this.packages;
+    }
+
+    /**
+     * Gets the packages and classes that are excluded.
+     *
+     * @return The exclusions.
+     */
+    public Set<String> getExclusions() {
+        return this.exclusions;
+    }
+
+    /**
+     * Gets whether a class is in one of the root packages, and is not excluded.
+     *
+     * @param className The fully qualified name of the class.
+     * @return <code>true</code> if so.
+     */
+    public boolean includes(String className) {
+        return this.packages.stream().anyMatch(x -> isWithin(className, x))
+                && this.exclusions.stream().noneMatch(x -> isWithin(className, x));
+    }
+
+    /**
+     * Gets whether a resource is in one of the code sources that this scope is restricted to. If there are none, every
+     * resource is.
+     *
+     * @param resource The location of the resource, as returned by {@link ClassLoader#getResource(String)}.
+     * @return <code>true</code> if so.
+     */
+    public boolean isInCodeSource(@Nullable URL resource) {
+        if (this.codeSources.isEmpty()) {
+            return true;
+        }
+
+        if (resource == null) {
+            return false;
+        }
+
+        String location = resource.toExternalForm();
+        for (String codeSource : this.codeSources) {
+            // A directory, or an entry in a jar.
+            if (location.startsWith(codeSource) || location.startsWith("jar:" + codeSource + "!/")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets whether a class passes every check in this scope.
+     *
+     * @param className The fully qualified name of the class.
+     * @param classLoader The {@link ClassLoader} the class would be loaded from.
+     * @return <code>true</code> if so.
+     */
+    public boolean includes(String className, ClassLoader classLoader) {
+        return includes(className)
+                && (this.codeSources.isEmpty() || isInCodeSource(classLoader.getResource(className.replace('.', '/') + ".class")));
+    }
+
+    private static boolean isWithin(String className, String prefix) {
+        return prefix.isEmpty() || className.equals(prefix) || className.startsWith(prefix + ".");
+    }
+
+    @Override
+    public String toString() {
+        return "DiscoveryScope{packages=" + this.packages + ", exclusions=" + this.exclusions + ", codeSources=" + this.codeSources + "}";
+    }
+
+    public static final class Builder {
+
+        private final Set<String> packages = new LinkedHashSet<>();
+        private final Set<String> exclusions = new LinkedHashSet<>();
+        private final Set<String> codeSources = new LinkedHashSet<>();
+
+        private Builder() {}
+
+        /**
+         * Adds a root package to scan, along with its subpackages.
+         *
+         * @param packageToScan The package.
+         * @return This {@link Builder}, for chaining.
+         */
+        public Builder addPackage(String packageToScan) {
+            this.packages.add(Preconditions.checkNotNull(packageToScan));
+            return this;
+        }
+
+        /**
+         * Excludes a package, along with its subpackages, or a single class, from the scan.
+         *
+         * @param packageOrClass The package or fully qualified class name.
+         * @return This {@link Builder}, for chaining.
+         */
+        public Builder addExclusion(String packageOrClass) {
+            this.exclusions.add(Preconditions.checkNotNull(packageOrClass));
+            return this;
+        }
+
+        /**
+         * Restricts the scan to classes from the given code source, such as a jar or a directory. If this is called
+         * more than once, classes from any of the code sources are scanned.
+         *
+         * @param location The location of the code source.
+         * @return This {@link Builder}, for chaining.
+         */
+        public Builder addCodeSource(URL location) {
+            this.codeSources.add(location.toExternalForm());
+            return this;
+        }
+
+        /**
+         * Restricts the scan to classes from the code source that the given class was loaded from, for example, the
+         * jar that contains the base module class.
+         *
+         * @param c The class.
+         * @return This {@link Builder}, for chaining.
+         * @throws IllegalArgumentException if the class has no code source.
+         */
+        public Builder addCodeSourceOf(Class<?> c) {
+            CodeSource codeSource = c.getProtectionDomain().getCodeSource();
+            Preconditions.checkArgument(codeSource != null && codeSource.getLocation() != null, "%s has no code source", c.getName());
+            return addCodeSource(codeSource.getLocation());
+        }
+
+        /**
+         * Builds the {@link DiscoveryScope}.
+         *
+         * @return The {@link DiscoveryScope}.
+         */
+        public DiscoveryScope build() {
+            Preconditions.checkState(!this.packages.isEmpty(), "At least one package must be scanned.");
+            return new DiscoveryScope(this);
+        }
+    }
+}
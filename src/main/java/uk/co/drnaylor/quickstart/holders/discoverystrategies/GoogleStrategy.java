@@ -6,7 +6,9 @@ package uk.co.drnaylor.quickstart.holders.discoverystrategies;
 
 import com.google.common.reflect.ClassPath;
 
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 public class GoogleStrategy implements Strategy {
@@ -16,4 +18,21 @@ public class GoogleStrategy implements Strategy {
         Set<ClassPath.ClassInfo> ci = ClassPath.from(classLoader).getTopLevelClassesRecursive(topPackage);
         return ci.stream().map(ClassPath.ClassInfo::load).collect(Collectors.toSet());
     }
+
+    @Override
+    public Set<Class<?>> discover(DiscoveryScope scope, ClassLoader classLoader) throws Exception {
+        Set<Class<?>> classes = new HashSet<>();
+        discover(scope, classLoader, classes::add);
+        return classes;
+    }
+
+    @Override
+    public void discover(DiscoveryScope scope, ClassLoader classLoader, Consumer<Class<?>> consumer) throws Exception {
+        // One pass over the classpath, filtering on names and locations before anything is loaded.
+        for (ClassPath.ClassInfo classInfo : ClassPath.from(classLoader).getTopLevelClasses()) {
+            if (scope.includes(classInfo.getName(), classLoader)) {
+                consumer.accept(classInfo.load());
+            }
+        }
+    }
 }
@@ -0,0 +1,250 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders.discoverystrategies;
+
+import com.google.common.base.Preconditions;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Strategy} that indexes jars by memory mapping their ZIP central directory, and reading the names of the
+ * entries under the packages being scanned directly from the mapped bytes. Nothing else in the jar is read, and only
+ * the names that match are turned into {@link String}s, so the cost of scanning a large jar is mostly the size of its
+ * central directory. Directories on the classpath are walked from the package being scanned downwards.
+ *
+ * <p>
+ *     Unlike {@link GoogleStrategy}, <code>Class-Path</code> entries in jar manifests are not followed. The classpath
+ *     is read from {@link URLClassLoader}s and the <code>java.class.path</code> property. If a {@link ClassLoader}
+ *     that is neither is found, its classpath cannot be known, and discovery falls back to another {@link Strategy},
+ *     {@link Strategy#DEFAULT} unless told otherwise.
+ * </p>
+ *
+ * <p>
+ *     Only the index is read from the mapping. The classes that are found are loaded through the {@link ClassLoader}
+ *     that is passed in, rather than defined from the mapped bytes as {@link NestedJarStrategy} does, because these
+ *     jars are already on that loader's classpath, and a class defined from them by another loader would be a
+ *     different class to the one the rest of the application sees.
+ * </p>
+ *
+ * <p>
+ *     A mapping is released when it is garbage collected, which on some platforms keeps the jar locked until then.
+ * </p>
+ */
+public class JarIndexStrategy implements Strategy {
+
+    private final Strategy fallback;
+
+    /**
+     * Creates a {@link JarIndexStrategy} that falls back to {@link Strategy#DEFAULT}.
+     */
+    public JarIndexStrategy() {
+        this(Strategy.DEFAULT);
+    }
+
+    /**
+     * Creates a {@link JarIndexStrategy}.
+     *
+     * @param fallback The {@link Strategy} to use if the classpath cannot be read from the {@link ClassLoader}.
+     */
+    public JarIndexStrategy(Strategy fallback) {
+        this.fallback = Preconditions.checkNotNull(fallback);
+    }
+
+    @Override
+    public Set<Class<?>> discover(String topPackage, ClassLoader classLoader) throws Exception {
+        return discover(DiscoveryScope.of(topPackage), classLoader);
+    }
+
+    @Override
+    public Set<Class<?>> discover(DiscoveryScope scope, ClassLoader classLoader) throws Exception {
+        Set<Class<?>> classes = new HashSet<>();
+        discover(scope, classLoader, classes::add);
+        return classes;
+    }
+
+    @Override
+    public void discover(DiscoveryScope scope, ClassLoader classLoader, Consumer<Class<?>> consumer) throws Exception {
+        List<Path> classPath = getClassPath(classLoader);
+        if (classPath == null) {
+            this.fallback.discover(scope, classLoader, consumer);
+            return;
+        }
+
+        List<String> prefixes = scope.getPackages().stream()
+                .map(x -> x.isEmpty() ? "" : x.replace('.', '/') + "/")
+                .collect(Collectors.toList());
+        Set<String> seen = new HashSet<>();
+        boolean skipped = false;
+        for (Path element : classPath) {
+            Set<String> classNames = new LinkedHashSet<>();
+            if (Files.isDirectory(element)) {
+                if (scope.isInCodeSource(element.toUri().toURL())) {
+                    scanDirectory(element, prefixes, classNames);
+                } else {
+                    skipped = true;
+                }
+            } else if (Files.isRegularFile(element)) {
+                if (scope.isInCodeSource(new URL("jar:" + element.toUri().toURL().toExternalForm() + "!/"))) {
+                    scanJar(element, prefixes, classNames);
+                } else {
+                    skipped = true;
+                }
+            }
+
+            // The classpath is in search order, so a class loads from the first element it is found in, which has
+            // already passed the code source check. Only a class in an element that was skipped could shadow it, and
+            // then the class loader has to be asked where the class really comes from.
+            for (String className : classNames) {
+                if (seen.add(className) && (skipped ? scope.includes(className, classLoader) : scope.includes(className))) {
+                    consumer.accept(Class.forName(className, false, classLoader));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the classpath of a {@link ClassLoader} and its parents, in the order they are searched, or
+     * <code>null</code> if it cannot be known.
+     */
+    @Nullable
+    static List<Path> getClassPath(ClassLoader classLoader) throws URISyntaxException {
+        List<ClassLoader> hierarchy = new ArrayList<>();
+        for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+            hierarchy.add(0, cl);
+        }
+
+        Set<ClassLoader> builtIn = new HashSet<>();
+        for (ClassLoader cl = ClassLoader.getSystemClassLoader(); cl != null; cl = cl.getParent()) {
+            builtIn.add(cl);
+        }
+
+        Set<Path> classPath = new LinkedHashSet<>();
+        for (ClassLoader cl : hierarchy) {
+            if (cl instanceof URLClassLoader) {
+                for (URL url : ((URLClassLoader) cl).getURLs()) {
+                    if (url.getProtocol().equals("file")) {
+                        classPath.add(Paths.get(url.toURI()));
+                    }
+                }
+            } else if (cl == ClassLoader.getSystemClassLoader()) {
+                // Java 9 and later, the application class loader is no longer a URLClassLoader.
+                for (String entry : System.getProperty("java.class.path", "").split(File.pathSeparator)) {
+                    if (!entry.isEmpty()) {
+                        classPath.add(Paths.get(entry).toAbsolutePath());
+                    }
+                }
+            } else if (!builtIn.contains(cl)) {
+                return null;
+            }
+        }
+
+        return new ArrayList<>(classPath);
+    }
+
+    private static void scanDirectory(Path root, List<String> prefixes, Set<String> classNames) throws IOException {
+        for (String prefix : prefixes) {
+            Path start = root.resolve(prefix);
+            if (!Files.isDirectory(start)) {
+                continue;
+            }
+
+            try (Stream<Path> files = Files.walk(start)) {
+                files.filter(Files::isRegularFile)
+                        .map(x -> toTopLevelClassName(root.relativize(x).toString().replace(File.separatorChar, '/')))
+                        .forEach(x -> {
+                            if (x != null) {
+                                classNames.add(x);
+                            }
+                        });
+            }
+        }
+    }
+
+    private static void scanJar(Path jar, List<String> prefixes, Set<String> classNames) {
+        List<String> entries;
+        try {
+            entries = readCentralDirectory(jar, prefixes);
+        } catch (IOException | RuntimeException e) {
+            // Not something we can parse, such as a split or encrypted archive, so let the JDK have a go at it.
+            try {
+                entries = readEntries(jar, prefixes);
+            } catch (IOException ex) {
+                // Not an archive at all, so there are no classes to find, as with a classpath scan.
+                return;
+            }
+        }
+
+        for (String entry : entries) {
+            String className = toTopLevelClassName(entry);
+            if (className != null) {
+                classNames.add(className);
+            }
+        }
+    }
+
+    /**
+     * Reads the names of the entries that start with any of the prefixes from the central directory of a ZIP file.
+     */
+    private static List<String> readCentralDirectory(Path jar, List<String> prefixes) throws IOException {
+        try (FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+            // Only the tail and the central directory are mapped.
+            return ZipArchive.of(channel, 0, channel.size(), true).getEntries(toBytes(prefixes)).stream()
+                    .map(x -> x.name)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    static byte[][] toBytes(List<String> prefixes) {
+        return prefixes.stream().map(x -> x.getBytes(StandardCharsets.UTF_8)).toArray(byte[][]::new);
+    }
+
+    private static List<String> readEntries(Path jar, List<String> prefixes) throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (JarFile jarFile = new JarFile(jar.toFile(), false)) {
+            Enumeration<JarEntry> jarEntries = jarFile.entries();
+            while (jarEntries.hasMoreElements()) {
+                String name = jarEntries.nextElement().getName();
+                if (prefixes.stream().anyMatch(name::startsWith)) {
+                    entries.add(name);
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    @Nullable
+    static String toTopLevelClassName(String entry) {
+        if (!entry.endsWith(".class") || entry.indexOf('$') >= 0 || entry.startsWith("META-INF/")
+                || entry.endsWith("module-info.class")) {
+            return null;
+        }
+
+        return entry.substring(0, entry.length() - ".class".length()).replace('/', '.');
+    }
+}
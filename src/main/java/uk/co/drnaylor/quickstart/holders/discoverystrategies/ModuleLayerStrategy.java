@@ -0,0 +1,224 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders.discoverystrategies;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Strategy} that finds classes in named Java modules (JPMS, Java 9 and later) by reading the packages each
+ * module declares, and then listing only the modules that contain a package being scanned. Unlike a classpath scan,
+ * the cost grows with the size of those modules, not with the whole classpath.
+ *
+ * <p>
+ *     The Java module API is used reflectively, so this strategy can be used on Java 8. Where that API is missing, or
+ *     no named module contains a package being scanned, for example, when the application is run from the classpath,
+ *     discovery falls back to another {@link Strategy}, {@link Strategy#DEFAULT} unless told otherwise.
+ * </p>
+ *
+ * <p>
+ *     The fallback is all or nothing. Once any named module contains a package being scanned, the classpath is not
+ *     scanned at all, so classes in the same packages that are only on the classpath, in the unnamed module, are not
+ *     found.
+ * </p>
+ */
+public class ModuleLayerStrategy implements Strategy {
+
+    @Nullable private static final ModuleApi API = ModuleApi.find();
+
+    private final List<Class<?>> anchors;
+    private final Strategy fallback;
+
+    /**
+     * Creates a {@link ModuleLayerStrategy} that scans the boot layer.
+     */
+    public ModuleLayerStrategy() {
+        this(Strategy.DEFAULT);
+    }
+
+    /**
+     * Creates a {@link ModuleLayerStrategy} that scans the layers that the given classes were loaded in, and the
+     * parents of those layers. If no classes are given, the boot layer is scanned.
+     *
+     * @param fallback The {@link Strategy} to use if the packages are not in named modules.
+     * @param anchors Classes in the layers to scan.
+     */
+    public ModuleLayerStrategy(Strategy fallback, Class<?>... anchors) {
+        this.fallback = Preconditions.checkNotNull(fallback);
+        this.anchors = ImmutableList.copyOf(anchors);
+    }
+
+    @Override
+    public Set<Class<?>> discover(String topPackage, ClassLoader classLoader) throws Exception {
+        return discover(DiscoveryScope.of(topPackage), classLoader);
+    }
+
+    @Override
+    public Set<Class<?>> discover(DiscoveryScope scope, ClassLoader classLoader) throws Exception {
+        Set<Class<?>> classes = new HashSet<>();
+        discover(scope, classLoader, classes::add);
+        return classes;
+    }
+
+    @Override
+    public void discover(DiscoveryScope scope, ClassLoader classLoader, Consumer<Class<?>> consumer) throws Exception {
+        if (API == null) {
+            this.fallback.discover(scope, classLoader, consumer);
+            return;
+        }
+
+        boolean found = false;
+        for (Object layer : API.getLayers(this.anchors)) {
+            for (Object module : API.getModules(layer)) {
+                Set<String> packages = API.getPackages(module).stream()
+                        .filter(x -> scope.getPackages().stream().anyMatch(r -> r.isEmpty() || x.equals(r) || x.startsWith(r + ".")))
+                        .collect(Collectors.toSet());
+                if (packages.isEmpty()) {
+                    continue;
+                }
+
+                found = true;
+                ClassLoader moduleLoader = API.getLoader(layer, module);
+                for (String resource : API.listResources(module)) {
+                    String className = toTopLevelClassName(resource);
+                    if (className != null
+                            && packages.contains(className.substring(0, Math.max(0, className.lastIndexOf('.'))))
+                            && scope.includes(className)
+                            && (moduleLoader == null || scope.includes(className, moduleLoader))) {
+                        consumer.accept(Class.forName(className, false, moduleLoader));
+                    }
+                }
+            }
+        }
+
+        if (!found) {
+            this.fallback.discover(scope, classLoader, consumer);
+        }
+    }
+
+    @Nullable
+    private static String toTopLevelClassName(String resource) {
+        if (!resource.endsWith(".class") || resource.indexOf('$') >= 0 || resource.endsWith("module-info.class")
+                || resource.endsWith("package-info.class")) {
+            return null;
+        }
+
+        return resource.substring(0, resource.length() - ".class".length()).replace('/', '.');
+    }
+
+    /**
+     * The parts of the Java module API that are needed, looked up reflectively.
+     */
+    private static final class ModuleApi {
+
+        private final Method boot;
+        private final Method parents;
+        private final Method configuration;
+        private final Method findLoader;
+        private final Method getModule;
+        private final Method getLayer;
+        private final Method modules;
+        private final Method name;
+        private final Method reference;
+        private final Method descriptor;
+        private final Method packages;
+        private final Method open;
+        private final Method list;
+
+        @Nullable
+        static ModuleApi find() {
+            try {
+                return new ModuleApi();
+            } catch (ReflectiveOperationException e) {
+                // Java 8.
+                return null;
+            }
+        }
+
+        private ModuleApi() throws ReflectiveOperationException {
+            Class<?> layer = Class.forName("java.lang.ModuleLayer");
+            Class<?> module = Class.forName("java.lang.Module");
+            Class<?> resolvedModule = Class.forName("java.lang.module.ResolvedModule");
+            Class<?> moduleReference = Class.forName("java.lang.module.ModuleReference");
+            this.boot = layer.getMethod("boot");
+            this.parents = layer.getMethod("parents");
+            this.configuration = layer.getMethod("configuration");
+            this.findLoader = layer.getMethod("findLoader", String.class);
+            this.getModule = Class.class.getMethod("getModule");
+            this.getLayer = module.getMethod("getLayer");
+            this.modules = Class.forName("java.lang.module.Configuration").getMethod("modules");
+            this.name = resolvedModule.getMethod("name");
+            this.reference = resolvedModule.getMethod("reference");
+            this.descriptor = moduleReference.getMethod("descriptor");
+            this.packages = Class.forName("java.lang.module.ModuleDescriptor").getMethod("packages");
+            this.open = moduleReference.getMethod("open");
+            this.list = Class.forName("java.lang.module.ModuleReader").getMethod("list");
+        }
+
+        /**
+         * Gets the layers the anchors are in, or the boot layer, along with all of their parents.
+         */
+        Set<Object> getLayers(List<Class<?>> anchors) throws ReflectiveOperationException {
+            Deque<Object> toVisit = new ArrayDeque<>();
+            if (anchors.isEmpty()) {
+                toVisit.add(this.boot.invoke(null));
+            } else {
+                for (Class<?> anchor : anchors) {
+                    Object layer = this.getLayer.invoke(this.getModule.invoke(anchor));
+                    if (layer != null) {
+                        toVisit.add(layer);
+                    }
+                }
+            }
+
+            Set<Object> layers = new LinkedHashSet<>();
+            while (!toVisit.isEmpty()) {
+                Object layer = toVisit.poll();
+                if (layers.add(layer)) {
+                    toVisit.addAll((List<?>) this.parents.invoke(layer));
+                }
+            }
+
+            return layers;
+        }
+
+        Collection<?> getModules(Object layer) throws ReflectiveOperationException {
+            return (Collection<?>) this.modules.invoke(this.configuration.invoke(layer));
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<String> getPackages(Object resolvedModule) throws ReflectiveOperationException {
+            return (Set<String>) this.packages.invoke(this.descriptor.invoke(this.reference.invoke(resolvedModule)));
+        }
+
+        @Nullable
+        ClassLoader getLoader(Object layer, Object resolvedModule) throws ReflectiveOperationException {
+            return (ClassLoader) this.findLoader.invoke(layer, this.name.invoke(resolvedModule));
+        }
+
+        @SuppressWarnings("unchecked")
+        List<String> listResources(Object resolvedModule) throws Exception {
+            try (Closeable reader = (Closeable) this.open.invoke(this.reference.invoke(resolvedModule));
+                    Stream<String> resources = (Stream<String>) this.list.invoke(reader)) {
+                return resources.collect(Collectors.toList());
+            }
+        }
+    }
+}
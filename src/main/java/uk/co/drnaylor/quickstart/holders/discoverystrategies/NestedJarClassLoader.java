@@ -0,0 +1,213 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders.discoverystrategies;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.net.URLStreamHandler;
+import java.nio.ByteBuffer;
+import java.security.CodeSource;
+import java.security.ProtectionDomain;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nullable;
+
+/**
+ * A parent-first {@link ClassLoader} that loads classes and resources from jars nested inside other jars, reading them
+ * in place, without extracting them.
+ *
+ * <p>Resources are given <code>jar:file:/outer.jar!/lib/inner.jar!/path</code> URLs, which can only be opened through
+ * this class loader.</p>
+ */
+final class NestedJarClassLoader extends ClassLoader {
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    private final List<NestedJar> jars;
+
+    /**
+     * Creates a {@link NestedJarClassLoader}.
+     *
+     * @param parent The parent {@link ClassLoader}.
+     * @param jars The nested jars, in the order they are searched.
+     */
+    NestedJarClassLoader(ClassLoader parent, List<NestedJar> jars) {
+        super(parent);
+        this.jars = ImmutableList.copyOf(jars);
+    }
+
+    /**
+     * Gets the nested jars.
+     *
+     * @return The jars, in the order they are searched.
+     */
+    List<NestedJar> getJars() {
+        return this.jars;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        String resource = name.replace('.', '/') + ".class";
+        for (NestedJar jar : this.jars) {
+            try {
+                ZipArchive.Entry entry = jar.find(resource);
+                if (entry != null) {
+                    definePackageIfMissing(name);
+                    ByteBuffer bytecode = jar.archive.read(entry);
+                    return defineClass(name, bytecode, jar.protectionDomain);
+                }
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+
+        throw new ClassNotFoundException(name);
+    }
+
+    @Override
+    @Nullable
+    protected URL findResource(String name) {
+        for (NestedJar jar : this.jars) {
+            URL url = jar.getResource(name);
+            if (url != null) {
+                return url;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected Enumeration<URL> findResources(String name) {
+        List<URL> urls = new ArrayList<>();
+        for (NestedJar jar : this.jars) {
+            URL url = jar.getResource(name);
+            if (url != null) {
+                urls.add(url);
+            }
+        }
+
+        return Collections.enumeration(urls);
+    }
+
+    private void definePackageIfMissing(String className) {
+        int lastDot = className.lastIndexOf('.');
+        if (lastDot == -1) {
+            return;
+        }
+
+        String packageName = className.substring(0, lastDot);
+        if (getPackage(packageName) == null) {
+            try {
+                definePackage(packageName, null, null, null, null, null, null, null);
+            } catch (IllegalArgumentException e) {
+                // Defined by another thread in the meantime.
+            }
+        }
+    }
+
+    /**
+     * A jar inside another jar.
+     */
+    static final class NestedJar {
+
+        final ZipArchive archive;
+        private final String location;
+        private final ProtectionDomain protectionDomain;
+        @Nullable private Map<String, ZipArchive.Entry> entries;
+
+        /**
+         * Creates a {@link NestedJar}.
+         *
+         * @param archive The archive.
+         * @param outer The URL of the jar that this jar is in.
+         * @param name The name of the entry in the outer jar.
+         * @throws MalformedURLException if the URL of this jar cannot be created.
+         */
+        NestedJar(ZipArchive archive, URL outer, String name) throws MalformedURLException {
+            this.archive = archive;
+            this.location = outer.toExternalForm() + "!/" + name;
+            this.protectionDomain = new ProtectionDomain(new CodeSource(new URL("jar:" + this.location + "!/"), (Certificate[]) null),
+                    null, null, null);
+        }
+
+        /**
+         * Gets the URL of the root of this jar, such as <code>jar:file:/outer.jar!/lib/inner.jar!/</code>.
+         *
+         * @return The URL.
+         */
+        URL getUrl() {
+            return this.protectionDomain.getCodeSource().getLocation();
+        }
+
+        /**
+         * Finds an entry, reading the whole central directory of this jar the first time an entry is looked up.
+         */
+        @Nullable
+        synchronized ZipArchive.Entry find(String name) throws IOException {
+            if (this.entries == null) {
+                Map<String, ZipArchive.Entry> entries = new HashMap<>();
+                for (ZipArchive.Entry entry : this.archive.getEntries(new byte[][] { new byte[0] })) {
+                    entries.putIfAbsent(entry.name, entry);
+                }
+
+                this.entries = entries;
+            }
+
+            return this.entries.get(name);
+        }
+
+        @Nullable
+        URL getResource(String name) {
+            try {
+                ZipArchive.Entry entry = find(name);
+                if (entry == null) {
+                    return null;
+                }
+
+                return new URL("jar", null, -1, this.location + "!/" + name, new URLStreamHandler() {
+                    @Override
+                    protected URLConnection openConnection(URL u) {
+                        return new URLConnection(u) {
+                            @Override
+                            public void connect() {
+                                this.connected = true;
+                            }
+
+                            @Override
+                            public InputStream getInputStream() throws IOException {
+                                ByteBuffer contents = NestedJar.this.archive.read(entry);
+                                byte[] bytes = new byte[contents.remaining()];
+                                contents.get(bytes);
+                                return new ByteArrayInputStream(bytes);
+                            }
+
+                            @Override
+                            public long getContentLengthLong() {
+                                return entry.size;
+                            }
+                        };
+                    }
+                });
+            } catch (IOException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders.discoverystrategies;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Strategy} that also finds classes in jars that are nested inside the jars on the classpath, such as the
+ * <code>lib/*.jar</code> entries of a fat jar, without extracting them.
+ *
+ * <p>
+ *     Nested jars that are stored uncompressed, as they usually are, are read in place from the outer jar, by memory
+ *     mapping the regions that are needed or reading them into the heap. Only the central directory of each nested jar
+ *     is read during discovery. Nested jars that are compressed have to be inflated into the heap first.
+ * </p>
+ *
+ * <p>
+ *     Classes from nested jars are loaded by a child of the {@link ClassLoader} being scanned, which asks its parent
+ *     first. If the application is launched by something that can already load nested jars, its classes are used, and
+ *     otherwise, this strategy defines them, so that modules in nested jars can be loaded either way. There is one such
+ *     class loader for each {@link ClassLoader} that is scanned, which keeps the outer jars open until this strategy is
+ *     closed.
+ * </p>
+ *
+ * <p>
+ *     Closing the strategy closes the outer jars and forgets those class loaders. Classes that have already been
+ *     loaded from nested jars keep working, but their class loaders cannot load anything else, so it should only be
+ *     closed once the modules that were found are no longer needed. Discovering again opens the jars afresh.
+ * </p>
+ *
+ * <p>Everything outside of nested jars is discovered by another {@link Strategy}, a {@link JarIndexStrategy} unless
+ * told otherwise.</p>
+ */
+public class NestedJarStrategy implements Strategy, Closeable {
+
+    private static final List<String> DEFAULT_DIRECTORIES = ImmutableList.of("lib/", "BOOT-INF/lib/", "WEB-INF/lib/");
+
+    private final Strategy delegate;
+    private final boolean memoryMapped;
+    private final List<String> directories;
+    private final Map<ClassLoader, NestedJarClassLoader> classLoaders = new HashMap<>();
+    private final List<FileChannel> channels = new ArrayList<>();
+
+    /**
+     * Creates a {@link NestedJarStrategy} that memory maps nested jars in the <code>lib/</code>,
+     * <code>BOOT-INF/lib/</code> and <code>WEB-INF/lib/</code> directories of the jars on the classpath.
+     */
+    public NestedJarStrategy() {
+        this(new JarIndexStrategy(), true);
+    }
+
+    /**
+     * Creates a {@link NestedJarStrategy}.
+     *
+     * @param delegate The {@link Strategy} to discover classes outside of nested jars with.
+     * @param memoryMapped Whether to memory map the outer jars, rather than reading from them.
+     * @param directories The directories in the outer jars that contain nested jars, such as <code>lib/</code>. If
+     *                    none are given, <code>lib/</code>, <code>BOOT-INF/lib/</code> and <code>WEB-INF/lib/</code>
+     *                    are used.
+     */
+    public NestedJarStrategy(Strategy delegate, boolean memoryMapped, String... directories) {
+        this.delegate = Preconditions.checkNotNull(delegate);
+        this.memoryMapped = memoryMapped;
+        this.directories = directories.length == 0 ? DEFAULT_DIRECTORIES : Arrays.stream(directories)
+                .map(x -> x.isEmpty() || x.endsWith("/") ? x : x + "/")
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Set<Class<?>> discover(String topPackage, ClassLoader classLoader) throws Exception {
+        return discover(DiscoveryScope.of(topPackage), classLoader);
+    }
+
+    @Override
+    public Set<Class<?>> discover(DiscoveryScope scope, ClassLoader classLoader) throws Exception {
+        Set<Class<?>> classes = new HashSet<>();
+        discover(scope, classLoader, classes::add);
+        return classes;
+    }
+
+    @Override
+    public void discover(DiscoveryScope scope, ClassLoader classLoader, Consumer<Class<?>> consumer) throws Exception {
+        Set<String> seen = new HashSet<>();
+        this.delegate.discover(scope, classLoader, x -> {
+            seen.add(x.getName());
+            consumer.accept(x);
+        });
+
+        NestedJarClassLoader nestedClassLoader = getNestedClassLoader(classLoader);
+        if (nestedClassLoader == null) {
+            return;
+        }
+
+        byte[][] prefixes = JarIndexStrategy.toBytes(scope.getPackages().stream()
+                .map(x -> x.isEmpty() ? "" : x.replace('.', '/') + "/")
+                .collect(Collectors.toList()));
+        for (NestedJarClassLoader.NestedJar jar : nestedClassLoader.getJars()) {
+            if (!scope.isInCodeSource(jar.getUrl())) {
+                continue;
+            }
+
+            List<ZipArchive.Entry> entries;
+            try {
+                entries = jar.archive.getEntries(prefixes);
+            } catch (IOException e) {
+                // Not a jar after all, so there are no classes to find, as with a classpath scan.
+                continue;
+            }
+
+            for (ZipArchive.Entry entry : entries) {
+                String className = JarIndexStrategy.toTopLevelClassName(entry.name);
+                if (className != null && scope.includes(className) && seen.add(className)) {
+                    consumer.accept(Class.forName(className, false, nestedClassLoader));
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private synchronized NestedJarClassLoader getNestedClassLoader(ClassLoader classLoader) throws Exception {
+        if (this.classLoaders.containsKey(classLoader)) {
+            return this.classLoaders.get(classLoader);
+        }
+
+        List<Path> classPath = JarIndexStrategy.getClassPath(classLoader);
+        List<NestedJarClassLoader.NestedJar> jars = new ArrayList<>();
+        if (classPath != null) {
+            for (Path element : classPath) {
+                if (Files.isRegularFile(element)) {
+                    openNestedJars(element, jars);
+                }
+            }
+        }
+
+        NestedJarClassLoader nestedClassLoader = jars.isEmpty() ? null : new NestedJarClassLoader(classLoader, jars);
+        this.classLoaders.put(classLoader, nestedClassLoader);
+        return nestedClassLoader;
+    }
+
+    private void openNestedJars(Path outer, List<NestedJarClassLoader.NestedJar> jars) throws IOException {
+        FileChannel channel = FileChannel.open(outer, StandardOpenOption.READ);
+        int opened = jars.size();
+        try {
+            ZipArchive archive = ZipArchive.of(channel, 0, channel.size(), this.memoryMapped);
+            URL location = outer.toUri().toURL();
+            for (ZipArchive.Entry entry : archive.getEntries(JarIndexStrategy.toBytes(this.directories))) {
+                if (entry.name.endsWith(".jar")) {
+                    try {
+                        jars.add(new NestedJarClassLoader.NestedJar(archive.getNestedArchive(entry), location, entry.name));
+                    } catch (IOException e) {
+                        // Encrypted, or otherwise unreadable, so skip it.
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Not an archive, so there is nothing nested in it.
+        } finally {
+            if (jars.size() == opened) {
+                channel.close();
+            } else {
+                this.channels.add(channel);
+            }
+        }
+    }
+
+    /**
+     * Closes the outer jars that nested jars are read from, and forgets the class loaders for them.
+     *
+     * @throws IOException if a jar could not be closed. The rest are still closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : this.channels) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        this.channels.clear();
+        this.classLoaders.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
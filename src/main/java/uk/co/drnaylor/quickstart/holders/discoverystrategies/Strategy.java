@@ -4,7 +4,9 @@
  */
 package uk.co.drnaylor.quickstart.holders.discoverystrategies;
 
+import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * A {@link Strategy} determines how to discover a set of classes.
@@ -28,4 +30,42 @@ public interface Strategy {
      */
     Set<Class<?>> discover(String topPackage, ClassLoader classLoader) throws Exception;
 
+    /**
+     * Discover classes accessible using the specified {@link ClassLoader} that are within the {@link DiscoveryScope}.
+     *
+     * <p>By default, each root package is discovered in turn, and the results are then filtered. Strategies that can
+     * should override this to traverse the classpath once, and to filter classes before they are loaded.</p>
+     *
+     * @param scope The {@link DiscoveryScope} to scan
+     * @param classLoader The {@link ClassLoader} to use
+     * @return The {@link Set} of {@link Class}es that were discovered
+     * @throws Exception thrown if some issue occurred
+     */
+    default Set<Class<?>> discover(DiscoveryScope scope, ClassLoader classLoader) throws Exception {
+        Set<Class<?>> classes = new HashSet<>();
+        for (String topPackage : scope.getPackages()) {
+            classes.addAll(discover(topPackage, classLoader));
+        }
+
+        classes.removeIf(x -> !scope.includes(x.getName(), classLoader));
+        return classes;
+    }
+
+    /**
+     * Discover classes accessible using the specified {@link ClassLoader} that are within the {@link DiscoveryScope},
+     * passing each one to the consumer as soon as it is found, so that the caller can work on them while the rest of
+     * the classpath is scanned. The consumer may throw an unchecked exception to stop discovery.
+     *
+     * <p>By default, the classes are passed on once {@link #discover(DiscoveryScope, ClassLoader)} returns. A class
+     * may be passed on more than once.</p>
+     *
+     * @param scope The {@link DiscoveryScope} to scan
+     * @param classLoader The {@link ClassLoader} to use
+     * @param consumer The {@link Consumer} to pass the discovered {@link Class}es to
+     * @throws Exception thrown if some issue occurred
+     */
+    default void discover(DiscoveryScope scope, ClassLoader classLoader, Consumer<Class<?>> consumer) throws Exception {
+        discover(scope, classLoader).forEach(consumer);
+    }
+
 }
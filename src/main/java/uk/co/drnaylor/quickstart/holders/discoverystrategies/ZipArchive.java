@@ -0,0 +1,357 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.holders.discoverystrategies;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * A read only view of a ZIP archive, such as a jar, that only reads the parts of the archive that are asked for: the
+ * central directory when listing entries, and the entry itself when reading one.
+ *
+ * <p>
+ *     The archive can be a region of a file, so that a jar that is stored, uncompressed, inside another jar can be read
+ *     in place. Regions of a file are either memory mapped, or read into the heap when they are needed.
+ * </p>
+ */
+final class ZipArchive {
+
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY = 0x06064b50;
+    private static final int ZIP64_LOCATOR = 0x07064b50;
+    private static final int CENTRAL_DIRECTORY_HEADER = 0x02014b50;
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE = 56;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int ZIP64_EXTRA = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int STORED = 0;
+    private static final int DEFLATED = 8;
+
+    /**
+     * Opens a region of a file as an archive.
+     *
+     * @param channel The file.
+     * @param offset Where the archive starts in the file.
+     * @param size The size of the archive.
+     * @param map Whether to memory map regions of the file, rather than reading them.
+     * @return The archive.
+     */
+    static ZipArchive of(FileChannel channel, long offset, long size, boolean map) {
+        return new ZipArchive(size, (position, length) -> {
+            if (map) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, offset + position, length);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + position + buffer.position()) < 0) {
+                    throw new IOException("Unexpected end of file");
+                }
+            }
+
+            // Called through Buffer, as the ByteBuffer overrides added in Java 9 do not exist on Java 8.
+            ((Buffer) buffer).flip();
+            return buffer;
+        });
+    }
+
+    /**
+     * Views a buffer as an archive.
+     *
+     * @param buffer The buffer, from its position to its limit.
+     * @return The archive.
+     */
+    static ZipArchive of(ByteBuffer buffer) {
+        ByteBuffer archive = buffer.slice();
+        return new ZipArchive(archive.limit(), (position, length) -> {
+            ByteBuffer region = archive.duplicate();
+            ((Buffer) region).position((int) position).limit((int) position + length);
+            return region.slice();
+        });
+    }
+
+    private final long size;
+    private final Region region;
+
+    private ZipArchive(long size, Region region) {
+        this.size = size;
+        this.region = region;
+    }
+
+    /**
+     * Lists the entries whose names start with any of the prefixes, reading only the central directory. Only the names
+     * that match are decoded.
+     *
+     * @param prefixes The prefixes, as UTF-8. An empty prefix matches every entry.
+     * @return The entries, in the order they are in the directory.
+     * @throws IOException if the archive could not be read, or is not an archive.
+     */
+    List<Entry> getEntries(byte[][] prefixes) throws IOException {
+        int tailSize = (int) Math.min(this.size, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(this.size - tailSize, tailSize);
+        int end = findEndOfCentralDirectory(tail);
+        if (end < 0) {
+            throw new IOException("No end of central directory record");
+        }
+
+        long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+        long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+        long entryCount = tail.getShort(end + 10) & 0xFFFF;
+        long directoryEnd = this.size - tailSize + end;
+        if (end >= ZIP64_LOCATOR_SIZE && tail.getInt(end - ZIP64_LOCATOR_SIZE) == ZIP64_LOCATOR) {
+            long zip64EndPosition = tail.getLong(end - ZIP64_LOCATOR_SIZE + 8);
+            // As below, the record is found relative to the end of the archive, in case data was prepended.
+            long recordedEnd = directoryEnd - ZIP64_LOCATOR_SIZE - ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE;
+            ByteBuffer zip64End = read(recordedEnd, ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE);
+            if (zip64End.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                zip64End = read(zip64EndPosition, ZIP64_END_OF_CENTRAL_DIRECTORY_SIZE);
+                recordedEnd = zip64EndPosition;
+                if (zip64End.getInt(0) != ZIP64_END_OF_CENTRAL_DIRECTORY) {
+                    throw new IOException("Invalid ZIP64 end of central directory record");
+                }
+            }
+
+            entryCount = zip64End.getLong(32);
+            directorySize = zip64End.getLong(40);
+            directoryOffset = zip64End.getLong(48);
+            directoryEnd = recordedEnd;
+        }
+
+        // Work from where the directory ends rather than the offset in the record, in case data was prepended. The
+        // difference is then added to the offsets of the entries.
+        long directoryStart = directoryEnd - directorySize;
+        if (directoryStart < 0 || directorySize > Integer.MAX_VALUE) {
+            throw new IOException("Invalid central directory");
+        }
+
+        long shift = directoryStart - directoryOffset;
+        ByteBuffer directory = read(directoryStart, (int) directorySize);
+        List<Entry> entries = new ArrayList<>();
+        int position = 0;
+        for (long i = 0; i < entryCount; i++) {
+            if (directory.getInt(position) != CENTRAL_DIRECTORY_HEADER) {
+                throw new IOException("Invalid central directory header");
+            }
+
+            int nameLength = directory.getShort(position + 28) & 0xFFFF;
+            int extraLength = directory.getShort(position + 30) & 0xFFFF;
+            int commentLength = directory.getShort(position + 32) & 0xFFFF;
+            int nameStart = position + CENTRAL_DIRECTORY_HEADER_SIZE;
+            if (startsWithAny(directory, nameStart, nameLength, prefixes)) {
+                entries.add(readEntry(directory, position, nameStart, nameLength, extraLength, shift));
+            }
+
+            position = nameStart + nameLength + extraLength + commentLength;
+        }
+
+        return entries;
+    }
+
+    /**
+     * Reads the contents of an entry. Stored entries are returned in place, deflated entries are inflated into the
+     * heap.
+     *
+     * @param entry The entry, from {@link #getEntries(byte[][])}.
+     * @return The contents.
+     * @throws IOException if the entry could not be read.
+     */
+    ByteBuffer read(Entry entry) throws IOException {
+        if (!entry.readable) {
+            throw new IOException(entry.name + " is encrypted, or compressed using an unsupported method");
+        }
+
+        if (entry.size > Integer.MAX_VALUE || entry.compressedSize > Integer.MAX_VALUE) {
+            throw new IOException(entry.name + " is too large to read");
+        }
+
+        ByteBuffer data = read(getDataStart(entry), (int) entry.compressedSize);
+        if (entry.method == STORED) {
+            return data;
+        }
+
+        byte[] compressed = new byte[data.remaining()];
+        data.get(compressed);
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(compressed);
+            byte[] inflated = new byte[(int) entry.size];
+            int read = 0;
+            while (read < inflated.length && !inflater.finished()) {
+                int n = inflater.inflate(inflated, read, inflated.length - read);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                read += n;
+            }
+
+            if (read != inflated.length) {
+                throw new IOException("Truncated entry " + entry.name);
+            }
+
+            return ByteBuffer.wrap(inflated);
+        } catch (DataFormatException e) {
+            throw new IOException("Invalid entry " + entry.name, e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Opens an entry that is itself an archive. A stored entry is read in place, from the same file or buffer as this
+     * archive, and a deflated entry is inflated into the heap.
+     *
+     * @param entry The entry, from {@link #getEntries(byte[][])}.
+     * @return The archive.
+     * @throws IOException if the entry could not be read.
+     */
+    ZipArchive getNestedArchive(Entry entry) throws IOException {
+        if (entry.method != STORED || !entry.readable) {
+            return of(read(entry));
+        }
+
+        long dataStart = getDataStart(entry);
+        if (dataStart + entry.size > this.size) {
+            throw new IOException(entry.name + " extends outside of the archive");
+        }
+
+        return new ZipArchive(entry.size, (position, length) -> this.region.read(dataStart + position, length));
+    }
+
+    private long getDataStart(Entry entry) throws IOException {
+        ByteBuffer header = read(entry.localHeaderOffset, LOCAL_FILE_HEADER_SIZE);
+        if (header.getInt(0) != LOCAL_FILE_HEADER) {
+            throw new IOException("Invalid local file header for " + entry.name);
+        }
+
+        return entry.localHeaderOffset + LOCAL_FILE_HEADER_SIZE + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        if (position < 0 || position + length > this.size) {
+            throw new IOException("Read outside of the archive");
+        }
+
+        return this.region.read(position, length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static Entry readEntry(ByteBuffer directory, int position, int nameStart, int nameLength, int extraLength, long shift)
+            throws IOException {
+        byte[] nameBytes = new byte[nameLength];
+        for (int j = 0; j < nameLength; j++) {
+            nameBytes[j] = directory.get(nameStart + j);
+        }
+
+        String name = new String(nameBytes, StandardCharsets.UTF_8);
+        int flags = directory.getShort(position + 8) & 0xFFFF;
+        int method = directory.getShort(position + 10) & 0xFFFF;
+        long compressedSize = directory.getInt(position + 20) & 0xFFFFFFFFL;
+        long size = directory.getInt(position + 24) & 0xFFFFFFFFL;
+        long localHeaderOffset = directory.getInt(position + 42) & 0xFFFFFFFFL;
+
+        // Values that do not fit in 32 bits are in the ZIP64 extra field, in this order.
+        int extra = nameStart + nameLength;
+        int extraEnd = extra + extraLength;
+        while (extra + 4 <= extraEnd) {
+            int id = directory.getShort(extra) & 0xFFFF;
+            int length = directory.getShort(extra + 2) & 0xFFFF;
+            if (id == ZIP64_EXTRA) {
+                int field = extra + 4;
+                if (size == ZIP64_MAGIC) {
+                    size = directory.getLong(field);
+                    field += 8;
+                }
+
+                if (compressedSize == ZIP64_MAGIC) {
+                    compressedSize = directory.getLong(field);
+                    field += 8;
+                }
+
+                if (localHeaderOffset == ZIP64_MAGIC) {
+                    localHeaderOffset = directory.getLong(field);
+                }
+            }
+
+            extra += 4 + length;
+        }
+
+        boolean readable = (flags & 1) == 0 && (method == STORED || method == DEFLATED);
+        return new Entry(name, method, compressedSize, size, localHeaderOffset + shift, readable);
+    }
+
+    private static int findEndOfCentralDirectory(ByteBuffer tail) {
+        // The record is at the very end, unless the archive has a comment.
+        for (int i = tail.limit() - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIRECTORY
+                    && i + END_OF_CENTRAL_DIRECTORY_SIZE + (tail.getShort(i + 20) & 0xFFFF) == tail.limit()) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static boolean startsWithAny(ByteBuffer buffer, int start, int length, byte[][] prefixes) {
+        for (byte[] prefix : prefixes) {
+            if (prefix.length <= length && startsWith(buffer, start, prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int start, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(start + i) != prefix[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * An entry in the central directory.
+     */
+    static final class Entry {
+
+        final String name;
+        final int method;
+        final long compressedSize;
+        final long size;
+        final long localHeaderOffset;
+        final boolean readable;
+
+        private Entry(String name, int method, long compressedSize, long size, long localHeaderOffset, boolean readable) {
+            this.name = name;
+            this.method = method;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+            this.readable = readable;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Region {
+
+        ByteBuffer read(long position, int length) throws IOException;
+    }
+}
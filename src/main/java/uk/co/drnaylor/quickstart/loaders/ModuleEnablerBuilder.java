@@ -4,11 +4,15 @@
  */
 package uk.co.drnaylor.quickstart.loaders;
 
+import com.google.common.base.Preconditions;
 import uk.co.drnaylor.quickstart.Module;
 import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.enums.WatchdogPolicy;
 import uk.co.drnaylor.quickstart.util.ThrownBiConsumer;
 import uk.co.drnaylor.quickstart.util.ThrownConsumer;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.Set;
@@ -20,6 +24,9 @@ public class ModuleEnablerBuilder<M extends Module, D extends M> {
     final LinkedHashMap<String, ThrownBiConsumer<M, ModuleHolder<M, D>, Exception>> enablePhases = new LinkedHashMap<>();
     final Set<String> phases = new LinkedHashSet<>();
     final Set<String> dPhases = new LinkedHashSet<>();
+    final HashMap<String, Duration> phaseDeadlines = new HashMap<>();
+    final HashMap<String, Duration> moduleDeadlines = new HashMap<>();
+    WatchdogPolicy watchdogPolicy = WatchdogPolicy.KEEP_WAITING;
 
     public ModuleEnablerBuilder(Class<M> m, Class<D> d) {}
 
@@ -59,6 +66,52 @@ public class ModuleEnablerBuilder<M extends Module, D extends M> {
         return this;
     }
 
+    /**
+     * Sets how long each module may take to complete the given enable phase. If a module overruns, the stack of the
+     * thread it is running on is logged, and the {@link WatchdogPolicy} is applied.
+     *
+     * <p>
+     *     Under {@link WatchdogPolicy#KEEP_WAITING}, phases still run on the loading thread. Under any other policy, a
+     *     module that has a deadline runs its phases on a worker thread, so that loading can carry on without it, and a
+     *     phase that does not stop when it is interrupted keeps running in the background after its module has been
+     *     marked as errored.
+     * </p>
+     *
+     * @param name The name of the enable phase.
+     * @param deadline The deadline.
+     * @return This builder, for chaining.
+     */
+    public ModuleEnablerBuilder<M, D> setPhaseDeadline(String name, Duration deadline) {
+        Preconditions.checkArgument(!deadline.isNegative() && !deadline.isZero(), "deadline must be positive");
+        this.phaseDeadlines.put(name.toLowerCase(), deadline);
+        return this;
+    }
+
+    /**
+     * Sets how long the given module may take to complete each enable phase, overriding any deadline set using
+     * {@link #setPhaseDeadline(String, Duration)}.
+     *
+     * @param moduleId The ID of the module.
+     * @param deadline The deadline.
+     * @return This builder, for chaining.
+     */
+    public ModuleEnablerBuilder<M, D> setModuleDeadline(String moduleId, Duration deadline) {
+        Preconditions.checkArgument(!deadline.isNegative() && !deadline.isZero(), "deadline must be positive");
+        this.moduleDeadlines.put(moduleId.toLowerCase(), deadline);
+        return this;
+    }
+
+    /**
+     * Sets what to do when a module overruns its deadline. Defaults to {@link WatchdogPolicy#KEEP_WAITING}.
+     *
+     * @param watchdogPolicy The {@link WatchdogPolicy}.
+     * @return This builder, for chaining.
+     */
+    public ModuleEnablerBuilder<M, D> setWatchdogPolicy(WatchdogPolicy watchdogPolicy) {
+        this.watchdogPolicy = Preconditions.checkNotNull(watchdogPolicy);
+        return this;
+    }
+
     public PhasedModuleEnabler<M, D> build() {
         return new PhasedModuleEnabler<>(this);
     }
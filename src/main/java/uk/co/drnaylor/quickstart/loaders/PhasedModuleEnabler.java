@@ -8,11 +8,25 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import uk.co.drnaylor.quickstart.Module;
 import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.enums.WatchdogPolicy;
 import uk.co.drnaylor.quickstart.util.ThrownBiConsumer;
 import uk.co.drnaylor.quickstart.util.ThrownConsumer;
 
+import java.time.Duration;
 import java.util.Set;
 
+import javax.annotation.Nullable;
+
+/**
+ * The enable and disable phases that a {@link ModuleHolder} takes its modules through, built by a
+ * {@link ModuleEnablerBuilder}.
+ *
+ * <p>
+ *     If the module holder has a phase executor, set by {@link ModuleHolder.Builder#setPhaseExecutor}, each phase is
+ *     run for modules that do not depend on each other at the same time, on different threads. The actions given for
+ *     each phase must then be thread-safe.
+ * </p>
+ */
 public class PhasedModuleEnabler<M extends Module, D extends M> {
 
     private final ImmutableMap<String, ThrownBiConsumer<D, ModuleHolder<M, D>, Exception>> disablePhases;
@@ -20,6 +34,9 @@ public class PhasedModuleEnabler<M extends Module, D extends M> {
     private final ImmutableMap<String, ThrownBiConsumer<M, ModuleHolder<M, D>, Exception>> enablePhases;
     private final ImmutableSet<String> phases;
     private final ImmutableSet<String> dPhases;
+    private final ImmutableMap<String, Duration> phaseDeadlines;
+    private final ImmutableMap<String, Duration> moduleDeadlines;
+    private final WatchdogPolicy watchdogPolicy;
 
     PhasedModuleEnabler(ModuleEnablerBuilder<M, D> builder) {
         this.disablePhases = ImmutableMap.copyOf(builder.disablePhase);
@@ -27,6 +44,9 @@ public class PhasedModuleEnabler<M extends Module, D extends M> {
         this.enablePrePhases = ImmutableMap.copyOf(builder.enablePrePhases);
         this.phases = ImmutableSet.copyOf(builder.phases);
         this.dPhases = ImmutableSet.copyOf(builder.dPhases);
+        this.phaseDeadlines = ImmutableMap.copyOf(builder.phaseDeadlines);
+        this.moduleDeadlines = ImmutableMap.copyOf(builder.moduleDeadlines);
+        this.watchdogPolicy = builder.watchdogPolicy;
     }
 
     public Set<String> getEnablePhases() {
@@ -37,6 +57,28 @@ public class PhasedModuleEnabler<M extends Module, D extends M> {
         return this.dPhases;
     }
 
+    /**
+     * Gets how long the given module may take to complete the given enable phase.
+     *
+     * @param phase The phase.
+     * @param moduleId The ID of the module.
+     * @return The deadline, or {@code null} if there is none.
+     */
+    @Nullable
+    public Duration getDeadline(String phase, String moduleId) {
+        Duration deadline = this.moduleDeadlines.get(moduleId.toLowerCase());
+        return deadline == null ? this.phaseDeadlines.get(phase.toLowerCase()) : deadline;
+    }
+
+    /**
+     * Gets what to do when a module overruns its deadline.
+     *
+     * @return The {@link WatchdogPolicy}.
+     */
+    public WatchdogPolicy getWatchdogPolicy() {
+        return this.watchdogPolicy;
+    }
+
     public final void startEnablePrePhase(String phase, ModuleHolder<M, D> moduleHolder) throws Exception {
         final String lcPhase = phase.toLowerCase();
         ThrownConsumer<ModuleHolder<M, D>, Exception> ta = this.enablePrePhases.get(lcPhase);
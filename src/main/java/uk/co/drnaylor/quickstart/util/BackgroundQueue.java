@@ -0,0 +1,172 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.util;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Runs tasks in order on a single daemon thread, through a bounded queue.
+ *
+ * <p>
+ *     Submitting and closing are atomic with respect to each other: every task that is submitted before
+ *     {@link #close()} is run before it returns, and every task that is submitted afterwards is run on the calling
+ *     thread. No task is ever lost.
+ * </p>
+ *
+ * <p>
+ *     If the queue is full, the caller either waits for space or runs the task itself, depending on how the queue was
+ *     created. A task that throws does not stop later tasks from running; the failure is passed to the failure
+ *     handler instead.
+ * </p>
+ */
+public final class BackgroundQueue implements AutoCloseable {
+
+    private static final Runnable STOP = () -> {};
+
+    private final BlockingQueue<Runnable> queue;
+    private final boolean waitWhenFull;
+    private final Consumer<RuntimeException> onFailure;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Thread thread;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates a {@link BackgroundQueue} and starts its thread.
+     *
+     * @param threadName The name of the thread.
+     * @param capacity The number of tasks that can be waiting to run.
+     * @param waitWhenFull Whether callers wait for space when the queue is full, rather than running the task
+     *                     themselves.
+     * @param onFailure Told about any task that throws.
+     */
+    public BackgroundQueue(String threadName, int capacity, boolean waitWhenFull, Consumer<RuntimeException> onFailure) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be positive");
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.waitWhenFull = waitWhenFull;
+        this.onFailure = Preconditions.checkNotNull(onFailure);
+        this.thread = new Thread(this::drain, Preconditions.checkNotNull(threadName));
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a task, or runs it on the calling thread if this queue has been closed, or is full and callers do not
+     * wait for space. A task that is submitted by another task is run straight away, as the thread cannot wait for
+     * itself.
+     *
+     * @param task The task.
+     */
+    public void submit(Runnable task) {
+        if (Thread.currentThread() == this.thread) {
+            run(task);
+            return;
+        }
+
+        // Closing takes the write lock, so a task is either queued before the queue closes, or is not queued at all.
+        this.lock.readLock().lock();
+        try {
+            if (!this.closed) {
+                if (this.waitWhenFull) {
+                    this.queue.put(task);
+                    return;
+                } else if (this.queue.offer(task)) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        run(task);
+    }
+
+    /**
+     * Stops accepting tasks, and waits for every task that was queued to run. Tasks that are submitted after this call
+     * are run on the calling thread.
+     *
+     * <p>If the calling thread is interrupted while waiting, it keeps waiting, and its interrupt flag is set again
+     * once every task has run.</p>
+     */
+    @Override
+    public void close() {
+        this.lock.writeLock().lock();
+        try {
+            this.closed = true;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        if (Thread.currentThread() == this.thread) {
+            // Called by a task, so run the rest here. The queue is then empty, so the thread stops once the task ends.
+            runQueued();
+            this.queue.offer(STOP);
+            return;
+        }
+
+        boolean interrupted = false;
+        while (this.thread.isAlive()) {
+            try {
+                // Nothing else can be queued now, so this is the last task the thread sees.
+                if (this.queue.offer(STOP, 10, TimeUnit.MILLISECONDS)) {
+                    this.thread.join();
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        runQueued();
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runQueued() {
+        Runnable task;
+        while ((task = this.queue.poll()) != null) {
+            if (task != STOP) {
+                run(task);
+            }
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            Runnable task;
+            try {
+                task = this.queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (task == STOP) {
+                return;
+            } else {
+                run(task);
+            }
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            try {
+                this.onFailure.accept(e);
+            } catch (RuntimeException ignored) {
+                // Nowhere left to report it.
+            }
+        }
+    }
+}
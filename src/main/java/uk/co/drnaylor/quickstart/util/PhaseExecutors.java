@@ -0,0 +1,42 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates {@link ExecutorService}s that are suitable for running module phases, which often block on I/O.
+ */
+public final class PhaseExecutors {
+
+    private PhaseExecutors() {}
+
+    /**
+     * Creates an {@link ExecutorService} that runs each task on a new virtual thread, if the JVM supports them (Java 21
+     * and later). Otherwise, creates a cached pool of daemon platform threads.
+     *
+     * <p>The caller owns the returned executor, and should shut it down once it is no longer needed.</p>
+     *
+     * @return The {@link ExecutorService}.
+     */
+    public static ExecutorService virtualThreadsIfAvailable() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // Older JVM, fall through.
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "QuickStart Phase Worker " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
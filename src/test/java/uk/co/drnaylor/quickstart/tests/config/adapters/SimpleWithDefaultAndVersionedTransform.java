@@ -0,0 +1,28 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.config.adapters;
+
+import com.google.common.collect.Lists;
+import ninja.leaping.configurate.ConfigurationNode;
+import uk.co.drnaylor.quickstart.config.SimpleNodeConfigAdapter;
+
+import java.util.List;
+
+public class SimpleWithDefaultAndVersionedTransform extends SimpleNodeConfigAdapter {
+
+    @Override
+    protected List<Transformation> getTransformations() {
+        return Lists.newArrayList(
+            Transformation.moveFrom("test2").to("testmove").atVersion(1)
+        );
+    }
+
+    @Override
+    protected ConfigurationNode generateDefaults(ConfigurationNode node) {
+        node.getNode("test").setValue("test");
+        node.getNode("test2").setValue("test2");
+        return node;
+    }
+}
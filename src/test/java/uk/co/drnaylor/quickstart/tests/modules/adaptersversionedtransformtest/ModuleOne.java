@@ -0,0 +1,26 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.adaptersversionedtransformtest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.config.AbstractConfigAdapter;
+import uk.co.drnaylor.quickstart.tests.config.adapters.SimpleWithDefaultAndVersionedTransform;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+
+import java.util.Optional;
+
+@ModuleData(id = "moduleone", name = "moduleone")
+public class ModuleOne implements TestModule {
+
+    @Override
+    public Optional<AbstractConfigAdapter<?>> getConfigAdapter() {
+        return Optional.of(new SimpleWithDefaultAndVersionedTransform());
+    }
+
+    @Override
+    public void onEnable() {
+
+    }
+}
@@ -0,0 +1,17 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.criticalpathtest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+
+@ModuleData(id = "tail", name = "tail", dependencies = "head", cost = 1000)
+public class TailModule implements TestModule {
+
+    @Override
+    public void onEnable() {
+
+    }
+}
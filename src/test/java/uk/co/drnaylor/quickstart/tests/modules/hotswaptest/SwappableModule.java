@@ -0,0 +1,32 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.hotswaptest;
+
+import uk.co.drnaylor.quickstart.ModuleStateHandoff;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+@ModuleData(id = "swappable", name = "Swappable")
+public class SwappableModule implements DisableableModule, ModuleStateHandoff {
+
+    public int counter = 0;
+    public boolean enabled = false;
+
+    public void onEnable() {
+        this.enabled = true;
+    }
+
+    public void onDisable() {
+        this.enabled = false;
+    }
+
+    @Override public Object exportState() {
+        return this.counter;
+    }
+
+    @Override public void importState(Object state) {
+        this.counter = (Integer) state;
+    }
+}
@@ -0,0 +1,20 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.isolationtest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+@ModuleData(id = "isolated", name = "Isolated")
+public class IsolatedModule implements DisableableModule {
+
+    public void onEnable() {
+
+    }
+
+    public void onDisable() {
+
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.lazyconcurrenttest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.config.AbstractConfigAdapter;
+import uk.co.drnaylor.quickstart.config.SimpleNodeConfigAdapter;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ModuleData(id = "lazysecond", name = "Lazy Second", lazy = true)
+public class LazySecondModule implements DisableableModule {
+
+    public static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+    public LazySecondModule() {
+        CONSTRUCTED.incrementAndGet();
+    }
+
+    @Override
+    public Optional<AbstractConfigAdapter<?>> getConfigAdapter() {
+        return Optional.of(new SimpleNodeConfigAdapter());
+    }
+
+    @Override public void onEnable() {
+
+    }
+
+    @Override public void onDisable() {
+
+    }
+}
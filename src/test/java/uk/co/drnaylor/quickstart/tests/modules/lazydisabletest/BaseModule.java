@@ -0,0 +1,20 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.lazydisabletest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+@ModuleData(id = "base", name = "Base")
+public class BaseModule implements DisableableModule {
+
+    public void onEnable() {
+
+    }
+
+    public void onDisable() {
+
+    }
+}
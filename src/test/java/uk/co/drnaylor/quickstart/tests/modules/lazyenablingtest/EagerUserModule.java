@@ -0,0 +1,23 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.lazyenablingtest;
+
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+
+@ModuleData(id = "eageruser", name = "Eager User")
+public class EagerUserModule implements TestModule {
+
+    public static volatile ModuleHolder<TestModule, DisableableModule> HOLDER;
+    public static volatile boolean HELPER_AVAILABLE;
+    public static volatile boolean DEPENDENT_AVAILABLE;
+
+    @Override public void onEnable() {
+        HELPER_AVAILABLE = HOLDER.getModule("lazyhelper").isPresent();
+        DEPENDENT_AVAILABLE = HOLDER.getModule("lazydependent").isPresent();
+    }
+}
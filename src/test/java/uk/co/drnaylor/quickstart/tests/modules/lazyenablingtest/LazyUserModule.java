@@ -0,0 +1,21 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.lazyenablingtest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+
+import java.util.concurrent.CompletableFuture;
+
+@ModuleData(id = "lazyuser", name = "Lazy User", lazy = true)
+public class LazyUserModule implements TestModule {
+
+    public static volatile boolean HELPER_AVAILABLE;
+
+    @Override public void onEnable() {
+        // Uses another lazy module from another thread, while this one is still being activated.
+        HELPER_AVAILABLE = CompletableFuture.supplyAsync(() -> EagerUserModule.HOLDER.getModule("lazyhelper").isPresent()).join();
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.lazytest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+@ModuleData(id = "lazy", name = "Lazy", lazy = true)
+public class LazyModule implements TestModule {
+
+    public static final AtomicInteger CONSTRUCTED = new AtomicInteger();
+
+    public LazyModule() {
+        CONSTRUCTED.incrementAndGet();
+    }
+
+    @Override public void onEnable() {
+
+    }
+}
@@ -0,0 +1,21 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.runtimedepstest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.enums.LoadingStatus;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+@ModuleData(id = "dependent", name = "Dependent", dependencies = "base", status = LoadingStatus.DISABLED)
+public class DependentModule implements DisableableModule {
+
+    public void onEnable() {
+
+    }
+
+    public void onDisable() {
+
+    }
+}
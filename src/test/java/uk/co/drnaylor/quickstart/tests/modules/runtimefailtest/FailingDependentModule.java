@@ -0,0 +1,30 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.runtimefailtest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.config.AbstractConfigAdapter;
+import uk.co.drnaylor.quickstart.config.SimpleNodeConfigAdapter;
+import uk.co.drnaylor.quickstart.enums.LoadingStatus;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+import java.util.Optional;
+
+@ModuleData(id = "failingdependent", name = "Failing Dependent", dependencies = "failing", status = LoadingStatus.DISABLED)
+public class FailingDependentModule implements DisableableModule {
+
+    @Override
+    public Optional<AbstractConfigAdapter<?>> getConfigAdapter() {
+        return Optional.of(new SimpleNodeConfigAdapter());
+    }
+
+    public void onEnable() {
+
+    }
+
+    public void onDisable() {
+
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.slowdisabletest;
+
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.config.AbstractConfigAdapter;
+import uk.co.drnaylor.quickstart.config.SimpleNodeConfigAdapter;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+@ModuleData(id = "slow", name = "Slow")
+public class SlowDisableModule implements DisableableModule {
+
+    public static volatile ModuleHolder<?, ?> holder;
+    public static volatile CompletableFuture<Boolean> adapterPresent = new CompletableFuture<>();
+
+    @Override
+    public Optional<AbstractConfigAdapter<?>> getConfigAdapter() {
+        return Optional.of(new SimpleNodeConfigAdapter());
+    }
+
+    public void onEnable() {
+
+    }
+
+    public void onDisable() {
+        try {
+            Thread.sleep(500);
+            holder.getConfigAdapterForModule("slow", SimpleNodeConfigAdapter.class);
+            adapterPresent.complete(true);
+        } catch (Exception e) {
+            adapterPresent.complete(false);
+        }
+    }
+}
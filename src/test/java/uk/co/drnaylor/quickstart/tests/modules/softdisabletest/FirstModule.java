@@ -0,0 +1,26 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.modules.softdisabletest;
+
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+@ModuleData(id = "first", name = "First")
+public class FirstModule implements DisableableModule {
+
+    public static final List<String> DISABLED = Collections.synchronizedList(new ArrayList<>());
+
+    public void onEnable() {
+
+    }
+
+    public void onDisable() {
+        DISABLED.add("first");
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.co.drnaylor.quickstart.AsyncLoggerProxy;
+import uk.co.drnaylor.quickstart.LoggerProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+public class AsyncLoggerProxyTests {
+
+    @Test
+    public void testThatAllMessagesAreLoggedByTheTimeTheProxyIsClosed() throws Exception {
+        RecordingLogger recorder = new RecordingLogger(true);
+        AsyncLoggerProxy proxy = new AsyncLoggerProxy(recorder, 4);
+        for (int i = 0; i < 100; i++) {
+            final int j = i;
+            proxy.info(() -> "message " + j);
+        }
+
+        proxy.close();
+        Assert.assertEquals(100, recorder.messages.size());
+    }
+
+    @Test
+    public void testThatSuppliersAreNotCalledIfTheLevelIsDisabled() throws Exception {
+        AsyncLoggerProxy proxy = new AsyncLoggerProxy(new RecordingLogger(false));
+        proxy.warn(() -> {
+            throw new AssertionError("The message should not have been built");
+        });
+
+        proxy.close();
+    }
+
+    @Test
+    public void testThatMessagesLoggedWhileTheProxyIsClosingAreNotLost() throws Exception {
+        RecordingLogger recorder = new RecordingLogger(true);
+        AsyncLoggerProxy proxy = new AsyncLoggerProxy(recorder, 16);
+        CountDownLatch started = new CountDownLatch(4);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < 2000; i++) {
+                    proxy.info("message " + i);
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        started.await();
+        proxy.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        Assert.assertEquals(8000, recorder.messages.size());
+    }
+
+    @Test
+    public void testThatAMessageThatCannotBeBuiltIsReportedToTheWrappedLogger() throws Exception {
+        RecordingLogger recorder = new RecordingLogger(true);
+        AsyncLoggerProxy proxy = new AsyncLoggerProxy(recorder);
+        proxy.info(() -> {
+            throw new IllegalStateException("broken");
+        });
+        proxy.info("after");
+
+        proxy.close();
+        Assert.assertEquals(2, recorder.messages.size());
+        Assert.assertTrue(recorder.messages.get(0).contains("broken"));
+        Assert.assertEquals("after", recorder.messages.get(1));
+    }
+
+    private static class RecordingLogger implements LoggerProxy {
+
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final boolean enabled;
+
+        private RecordingLogger(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        @Override public void info(String message) {
+            this.messages.add(message);
+        }
+
+        @Override public void warn(String message) {
+            this.messages.add(message);
+        }
+
+        @Override public void error(String message) {
+            this.messages.add(message);
+        }
+
+        @Override public boolean isInfoEnabled() {
+            return this.enabled;
+        }
+
+        @Override public boolean isWarnEnabled() {
+            return this.enabled;
+        }
+
+        @Override public boolean isErrorEnabled() {
+            return this.enabled;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.co.drnaylor.quickstart.util.BackgroundQueue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+public class BackgroundQueueTests {
+
+    @Test(timeout = 10000)
+    public void testThatATaskCanSubmitToAFullQueue() throws Exception {
+        List<Integer> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        BackgroundQueue queue = new BackgroundQueue("Test Queue", 1, true, e -> {});
+        queue.submit(() -> {
+            // More than the queue can hold, which would block forever if the thread waited for itself.
+            for (int i = 0; i < 3; i++) {
+                int n = i;
+                queue.submit(() -> ran.add(n));
+            }
+
+            done.countDown();
+        });
+
+        done.await();
+        queue.close();
+        Assert.assertEquals(Lists.newArrayList(0, 1, 2), ran);
+    }
+
+    @Test(timeout = 10000)
+    public void testThatATaskCanCloseTheQueue() throws Exception {
+        List<String> ran = new CopyOnWriteArrayList<>();
+        CountDownLatch closed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BackgroundQueue queue = new BackgroundQueue("Test Queue", 4, true, e -> {});
+        queue.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            queue.close();
+            closed.countDown();
+        });
+        queue.submit(() -> ran.add("queued"));
+        release.countDown();
+
+        closed.await();
+        Assert.assertEquals(Lists.newArrayList("queued"), ran);
+
+        queue.submit(() -> ran.add("after"));
+        Assert.assertEquals(Lists.newArrayList("queued", "after"), ran);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.drnaylor.quickstart.BootPlan;
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class BootPlanTests extends FakeLoaderTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThatABootPlanIsUsedOnTheNextStart() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> first = getContainer("uk.co.drnaylor.quickstart.tests.modules.dependenciestest", null);
+        first.disableModule("moduletwo");
+        first.loadModules(true);
+        Assert.assertFalse(first.isDiscoveredFromBootPlan());
+
+        Path file = folder.getRoot().toPath().resolve("boot.plan");
+        first.getBootPlan().write(file);
+        BootPlan plan = BootPlan.read(file);
+        Assert.assertEquals(first.getBootPlan().getModules(), plan.getModules());
+        Assert.assertTrue(plan.getCascade().contains("modulethree"));
+        Assert.assertEquals(first.getBootPlan().getTimings(), plan.getTimings());
+
+        ModuleHolder<TestModule, DisableableModule> second = getContainer("uk.co.drnaylor.quickstart.tests.modules.dependenciestest", plan);
+        second.disableModule("moduletwo");
+        second.loadModules(true);
+        Assert.assertTrue(second.isDiscoveredFromBootPlan());
+        Assert.assertEquals(first.getModules(ModuleHolder.ModuleStatusTristate.ENABLE), second.getModules(ModuleHolder.ModuleStatusTristate.ENABLE));
+    }
+
+    @Test
+    public void testThatAStalePlanFallsBackToDiscovery() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("boot.plan");
+        Files.write(file, ("quickstart-boot-plan 1\nphases\tpreenable\tenable\tpostenable\n"
+                + "module\tmoduleone\tuk.co.drnaylor.quickstart.tests.modules.dependenciestest.DoesNotExist\tENABLED\tfalse\n").getBytes(UTF_8));
+
+        ModuleHolder<TestModule, DisableableModule> holder =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.dependenciestest", BootPlan.read(file));
+        holder.loadModules(true);
+        Assert.assertFalse(holder.isDiscoveredFromBootPlan());
+        Assert.assertEquals(3, holder.getModules(ModuleHolder.ModuleStatusTristate.ENABLE).size());
+    }
+
+    @Test
+    public void testThatAPlanIsUsedWhenDependenciesDifferInCaseFromModuleIds() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> first = getContainer("uk.co.drnaylor.quickstart.tests.modules.mixedcasedepstest", null);
+        first.loadModules(true);
+        Assert.assertEquals(2, first.getModules(ModuleHolder.ModuleStatusTristate.ENABLE).size());
+
+        ModuleHolder<TestModule, DisableableModule> second =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.mixedcasedepstest", first.getBootPlan());
+        second.loadModules(true);
+        Assert.assertTrue(second.isDiscoveredFromBootPlan());
+        Assert.assertTrue(second.isModuleLoaded("moduletwo"));
+    }
+
+    @Test
+    public void testThatDisablingADependencyWrittenInAnotherCaseCascades() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = getContainer("uk.co.drnaylor.quickstart.tests.modules.mixedcasedepstest", null);
+        holder.disableModule("moduleone");
+        holder.loadModules(true);
+        Assert.assertFalse(holder.isModuleLoaded("moduletwo"));
+    }
+
+    private ModuleHolder<TestModule, DisableableModule> getContainer(String p, BootPlan plan) throws Exception {
+        return DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan(p)
+                .setBootPlan(plan)
+                .build(true);
+    }
+}
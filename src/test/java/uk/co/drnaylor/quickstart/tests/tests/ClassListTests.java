@@ -0,0 +1,48 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.modules.dependenciestest.ModuleOne;
+import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+public class ClassListTests extends FakeLoaderTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThatTrainingModeWritesModuleClassesAfterTheirSupertypes() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("modules.classlist");
+        ModuleHolder<TestModule, DisableableModule> holder = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.dependenciestest")
+                .setClassListFile(file)
+                .build(true);
+
+        holder.loadModules(true);
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        int module = lines.indexOf(ModuleOne.class.getName().replace('.', '/'));
+        int supertype = lines.indexOf(TestModule.class.getName().replace('.', '/'));
+        Assert.assertNotEquals(-1, module);
+        Assert.assertNotEquals(-1, supertype);
+        Assert.assertTrue(supertype < module);
+    }
+}
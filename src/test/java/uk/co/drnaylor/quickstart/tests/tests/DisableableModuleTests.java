@@ -7,9 +7,35 @@ package uk.co.drnaylor.quickstart.tests.tests;
 import org.junit.Assert;
 import org.junit.Test;
 import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.ModuleKey;
+import uk.co.drnaylor.quickstart.ModuleMetadata;
+import uk.co.drnaylor.quickstart.config.SimpleNodeConfigAdapter;
+import uk.co.drnaylor.quickstart.enums.ConstructionPhase;
+import uk.co.drnaylor.quickstart.events.ModuleLifecycleListener;
+import uk.co.drnaylor.quickstart.exceptions.NoModuleException;
+import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleLoaderException;
 import uk.co.drnaylor.quickstart.exceptions.UndisableableModuleException;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.modules.hotswaptest.SwappableModule;
+import uk.co.drnaylor.quickstart.tests.modules.isolationtest.IsolatedModule;
+import uk.co.drnaylor.quickstart.tests.modules.slowdisabletest.SlowDisableModule;
+import uk.co.drnaylor.quickstart.tests.modules.softdisabletest.FirstModule;
 import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
 
+import java.lang.ref.WeakReference;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public class DisableableModuleTests extends FakeLoaderTests {
 
     @Test
@@ -22,6 +48,26 @@ public class DisableableModuleTests extends FakeLoaderTests {
         Assert.assertFalse(container.isModuleLoaded("dis"));
     }
 
+    @Test
+    public void testThatModuleKeysFollowRuntimeChanges() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container = getContainer("uk.co.drnaylor.quickstart.tests.modules.disableable", true);
+        ModuleKey<DisableableModule> key = container.getModuleKey("Dis", DisableableModule.class);
+        Assert.assertSame(key, container.getModuleKey("dis", DisableableModule.class));
+        Assert.assertNull(container.getModule(key));
+
+        container.loadModules(true);
+        Assert.assertTrue(container.isModuleLoaded(key));
+        Assert.assertSame(container.getModule("dis").get(), container.getModule(key));
+
+        container.disableModule("dis");
+        Assert.assertFalse(container.isModuleLoaded(key));
+        Assert.assertNull(container.getModule(key));
+
+        container.runtimeEnable("dis");
+        Assert.assertTrue(container.isModuleLoaded(key));
+        Assert.assertSame(container.getModule("dis").get(), container.getModule(key));
+    }
+
     @Test(expected = UndisableableModuleException.class)
     public void testThatStandardModuleCannotBeDisabled() throws Exception {
         ModuleHolder container = getContainer("uk.co.drnaylor.quickstart.tests.modules.disableable", true);
@@ -60,4 +106,310 @@ public class DisableableModuleTests extends FakeLoaderTests {
         container.runtimeEnable("dis");
         Assert.assertTrue(container.isModuleLoaded("dis"));
     }
+
+    @Test
+    public void testThatRuntimeEnableBringsUpDependenciesFirst() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.runtimedepstest", true);
+        container.loadModules(true);
+        List<String> enabled = new ArrayList<>();
+        container.addLifecycleListener(new ModuleLifecycleListener() {
+            @Override public void onEnabled(ModuleMetadata<?> module) {
+                enabled.add(module.getId());
+            }
+        });
+
+        container.runtimeEnable(Collections.singleton("dependent"), true);
+
+        Assert.assertTrue(container.isModuleLoaded("base"));
+        Assert.assertTrue(container.isModuleLoaded("dependent"));
+        Assert.assertEquals(Arrays.asList("base", "dependent"), enabled);
+    }
+
+    @Test
+    public void testThatRuntimeEnableRefusesDependenciesDisabledInConfig() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.runtimedepstest", true);
+        container.loadModules(true);
+
+        try {
+            container.runtimeEnable("dependent");
+            Assert.fail("The batch should have been refused.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        Assert.assertFalse(container.isModuleLoaded("base"));
+        Assert.assertFalse(container.isModuleLoaded("dependent"));
+
+        // Naming the dependency enables it.
+        container.runtimeEnable(new HashSet<>(Arrays.asList("base", "dependent")));
+        Assert.assertTrue(container.isModuleLoaded("dependent"));
+    }
+
+    @Test
+    public void testThatAFailedRuntimeEnableCleansUpTheBatch() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.runtimefailtest", true);
+        container.loadModules(true);
+        List<String> errored = Collections.synchronizedList(new ArrayList<>());
+        container.addLifecycleListener(new ModuleLifecycleListener() {
+            @Override public void onErrored(ModuleMetadata<?> module, Throwable cause) {
+                errored.add(module.getId());
+            }
+        });
+
+        try {
+            container.runtimeEnable(Collections.singleton("failingdependent"), true);
+            Assert.fail("The batch should have failed.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+
+        // The dependent never got to its enable phase, but cannot be enabled without the module that failed.
+        Assert.assertEquals(Arrays.asList("failing", "failingdependent"), errored);
+        Assert.assertFalse(container.isModuleLoaded("failing"));
+        Assert.assertFalse(container.isModuleLoaded("failingdependent"));
+        for (String id : Arrays.asList("failing", "failingdependent")) {
+            try {
+                container.getConfigAdapterForModule(id, SimpleNodeConfigAdapter.class);
+                Assert.fail("The config adapter of " + id + " should have been detached.");
+            } catch (NoModuleException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test(expected = NoModuleException.class)
+    public void testThatRuntimeEnableRejectsAnUnknownModule() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.runtimefailtest", true);
+        container.loadModules(true);
+
+        container.runtimeEnable("nosuchmodule");
+    }
+
+    @Test
+    public void testThatDisablingModulesCascadesToDependents() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.runtimedepstest", true);
+        container.loadModules(true);
+        container.runtimeEnable(Collections.singleton("dependent"), true);
+
+        container.disableModules(Collections.singleton("base"), true);
+
+        Assert.assertFalse(container.isModuleLoaded("base"));
+        Assert.assertFalse(container.isModuleLoaded("dependent"));
+        Assert.assertTrue(container.isModuleLoaded("core"));
+    }
+
+    @Test(expected = UndisableableModuleException.class)
+    public void testThatDisablingModulesWithoutCascadeFailsIfThereAreDependents() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.runtimedepstest", true);
+        container.loadModules(true);
+        container.runtimeEnable(Collections.singleton("dependent"), true);
+
+        container.disableModules(Collections.singleton("base"), false);
+    }
+
+    @Test
+    public void testThatDisablingModulesWaitsForSoftDependents() throws Exception {
+        FirstModule.DISABLED.clear();
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.softdisabletest", true);
+        container.loadModules(true);
+
+        container.disableModules(new HashSet<>(Arrays.asList("first", "second")), false);
+
+        Assert.assertEquals(Arrays.asList("second", "first"), FirstModule.DISABLED);
+    }
+
+    @Test
+    public void testThatDisablingModulesCascadesToUnusedLazyDependents() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.lazydisabletest", true);
+        container.loadModules(true);
+        List<String> disabled = Collections.synchronizedList(new ArrayList<>());
+        container.addLifecycleListener(new ModuleLifecycleListener() {
+            @Override public void onDisabled(ModuleMetadata<?> module) {
+                disabled.add(module.getId());
+            }
+        });
+
+        container.disableModules(Collections.singleton("base"), true);
+
+        Assert.assertFalse(container.isModuleLoaded("base"));
+        Assert.assertFalse(container.getModule("lazydependent").isPresent());
+        Assert.assertTrue(disabled.contains("lazydependent"));
+    }
+
+    @Test(expected = UndisableableModuleException.class)
+    public void testThatDisablingModulesWithoutCascadeFailsIfThereAreUnusedLazyDependents() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.lazydisabletest", true);
+        container.loadModules(true);
+
+        container.disableModules(Collections.singleton("base"), false);
+    }
+
+    @Test
+    public void testThatAModuleThatOverrunsTheShutdownDeadlineKeepsItsState() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.slowdisabletest", true);
+        container.loadModules(true);
+        SlowDisableModule.holder = container;
+        SlowDisableModule.adapterPresent = new CompletableFuture<>();
+
+        Assert.assertFalse(container.shutdown(Duration.ofMillis(50)));
+
+        // The disable phase is still running, and can still use its config.
+        Assert.assertTrue(SlowDisableModule.adapterPresent.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testThatShutdownDisablesEveryModuleInReverseOrder() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.runtimedepstest", true);
+        container.loadModules(true);
+        container.runtimeEnable(Collections.singleton("dependent"), true);
+        List<String> disabled = Collections.synchronizedList(new ArrayList<>());
+        container.addLifecycleListener(new ModuleLifecycleListener() {
+            @Override public void onDisabled(ModuleMetadata<?> module) {
+                disabled.add(module.getId());
+            }
+        });
+
+        Assert.assertTrue(container.shutdown(Duration.ofSeconds(10)));
+
+        Assert.assertEquals(ConstructionPhase.SHUTDOWN, container.getCurrentPhase());
+        Assert.assertEquals(3, disabled.size());
+        Assert.assertTrue(disabled.indexOf("dependent") < disabled.indexOf("base"));
+    }
+
+    @Test
+    public void testThatADisabledIsolatedModuleCanBeCollected() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.isolationtest")
+                .setAllowDisable(true)
+                .setModuleIsolation(true)
+                .build(true);
+        container.loadModules(true);
+
+        WeakReference<ClassLoader> moduleClassLoader = getModuleClassLoader(container);
+        Assert.assertNotSame(IsolatedModule.class.getClassLoader(), moduleClassLoader.get());
+
+        container.disableModule("isolated");
+        for (int i = 0; i < 50 && moduleClassLoader.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        Assert.assertNull(moduleClassLoader.get());
+        container.runtimeEnable("isolated");
+        Assert.assertTrue(container.isModuleLoaded("isolated"));
+    }
+
+    @Test
+    public void testThatAnIsolatedModuleCanBeFoundByInstanceAndKey() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container = getIsolatedContainer();
+        container.loadModules(true);
+
+        DisableableModule module = container.<DisableableModule>getModule("isolated").get();
+        Assert.assertNotSame(IsolatedModule.class, module.getClass());
+        Assert.assertEquals("isolated", container.getIdForModule(module).get());
+
+        ModuleKey<DisableableModule> key = container.getModuleKey("isolated", DisableableModule.class);
+        Assert.assertSame(module, container.getModule(key));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testThatAnIsolatedModuleCannotBeKeyedByItsOwnClass() throws Exception {
+        getIsolatedContainer().getModuleKey("isolated", IsolatedModule.class);
+    }
+
+    @Test
+    public void testThatAModuleCanBeHotSwappedWithItsState() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.hotswaptest", true);
+        container.loadModules(true);
+
+        SwappableModule original = container.<SwappableModule>getModule("swappable").get();
+        original.counter = 5;
+        SwappableModule replacement = new SwappableModule();
+        container.hotSwapModule("swappable", replacement);
+
+        Assert.assertSame(replacement, container.getModule("swappable").get());
+        Assert.assertEquals(5, replacement.counter);
+        Assert.assertTrue(replacement.enabled);
+        Assert.assertFalse(original.enabled);
+        Assert.assertTrue(container.isModuleLoaded("swappable"));
+    }
+
+    private ModuleHolder<TestModule, DisableableModule> getIsolatedContainer() throws Exception {
+        return DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.isolationtest")
+                .setAllowDisable(true)
+                .setModuleIsolation(true)
+                .build(true);
+    }
+
+    @Test
+    public void testThatAReplacementThatFailsToEnableIsDisabledAgain() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.hotswaptest", true);
+        container.loadModules(true);
+
+        SwappableModule original = container.<SwappableModule>getModule("swappable").get();
+        SwappableModule replacement = new SwappableModule() {
+            @Override public void postEnable() {
+                throw new IllegalStateException("Failed to enable");
+            }
+        };
+
+        try {
+            container.hotSwapModule("swappable", replacement);
+            Assert.fail("The swap should have failed.");
+        } catch (QuickStartModuleLoaderException.Enabling e) {
+            // expected
+        }
+
+        Assert.assertFalse(replacement.enabled);
+        Assert.assertTrue(original.enabled);
+        Assert.assertSame(original, container.getModule("swappable").get());
+    }
+
+    @Test
+    public void testThatAModuleCanBeHotSwappedFromAFreshClassLoader() throws Exception {
+        DiscoveryModuleHolder<TestModule, DisableableModule> container = (DiscoveryModuleHolder<TestModule, DisableableModule>)
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.hotswaptest", true);
+        container.loadModules(true);
+
+        SwappableModule original = container.<SwappableModule>getModule("swappable").get();
+        original.counter = 5;
+        URL location = SwappableModule.class.getProtectionDomain().getCodeSource().getLocation();
+        try (URLClassLoader bytecodeSource = new URLClassLoader(new URL[] { location }, null)) {
+            container.hotSwapModule("swappable", bytecodeSource);
+        }
+
+        DisableableModule replacement = container.<DisableableModule>getModule("swappable").get();
+        Assert.assertNotSame(original, replacement);
+        Assert.assertNotSame(SwappableModule.class, replacement.getClass());
+        Assert.assertEquals(SwappableModule.class.getName(), replacement.getClass().getName());
+        Assert.assertEquals(5, replacement.getClass().getField("counter").getInt(replacement));
+        Assert.assertTrue(replacement.getClass().getField("enabled").getBoolean(replacement));
+        Assert.assertFalse(original.enabled);
+        Assert.assertEquals("swappable", container.getIdForModule(replacement).get());
+    }
+
+    // Kept separate so that no strong reference to the module is left on the test's stack.
+    private static WeakReference<ClassLoader> getModuleClassLoader(ModuleHolder<TestModule, DisableableModule> container) {
+        return new WeakReference<>(container.getModule("isolated").get().getClass().getClassLoader());
+    }
 }
@@ -0,0 +1,92 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.ModuleKey;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
+import uk.co.drnaylor.quickstart.exceptions.UndisableableModuleException;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.loaders.ModuleEnablerBuilder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests how the holder keeps track of the modules that are enabled.
+ */
+public class EnabledModuleRegistryTests extends FakeLoaderTests {
+
+    @Test
+    public void testThatModulesAreEnabledInLoadOrder() throws Exception {
+        List<String> enabled = new CopyOnWriteArrayList<>();
+        ModuleHolder<TestModule, DisableableModule> holder = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(new ModuleEnablerBuilder<>(TestModule.class, DisableableModule.class)
+                        .createEnablePhase("enable", (module, h) -> enabled.add(module.getClass().getAnnotation(ModuleData.class).id()))
+                        .build())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.dependenciestest")
+                .build(true);
+        holder.loadModules(true);
+
+        Assert.assertEquals(Lists.newArrayList("moduleone", "moduletwo", "modulethree"), enabled);
+    }
+
+    @Test
+    public void testThatADisabledModuleIsRemoved() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = getContainer("uk.co.drnaylor.quickstart.tests.modules.disableable", true);
+        holder.loadModules(true);
+        ModuleKey<TestModule> key = holder.getModuleKey("dis", TestModule.class);
+        Assert.assertNotNull(holder.getModule(key));
+
+        holder.disableModule("dis");
+
+        Assert.assertFalse(holder.getModule("dis").isPresent());
+        Assert.assertNull(holder.getModule(key));
+        Assert.assertFalse(holder.isModuleLoaded("dis"));
+        Assert.assertTrue(holder.getModule("notdis").isPresent());
+    }
+
+    @Test
+    public void testThatShuttingDownRemovesEveryModule() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = getContainer("uk.co.drnaylor.quickstart.tests.modules.disableable", true);
+        holder.loadModules(true);
+        ModuleKey<TestModule> key = holder.getModuleKey("notdis", TestModule.class);
+
+        Assert.assertTrue(holder.shutdown(Duration.ofSeconds(10)));
+
+        Assert.assertFalse(holder.getModule("dis").isPresent());
+        Assert.assertFalse(holder.getModule("notdis").isPresent());
+        Assert.assertNull(holder.getModule(key));
+    }
+
+    @Test
+    public void testThatModulesAreOnlyFoundByTheirExactId() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = getContainer("uk.co.drnaylor.quickstart.tests.modules.disableable", true);
+        holder.loadModules(true);
+
+        Assert.assertTrue(holder.getModule("dis").isPresent());
+        Assert.assertFalse(holder.getModule("Dis").isPresent());
+
+        // Keys are looked up case insensitively, and then address the module directly.
+        Assert.assertNotNull(holder.getModule(holder.getModuleKey("Dis", TestModule.class)));
+    }
+
+    @Test(expected = UndisableableModuleException.class)
+    public void testThatAModuleCannotBeDisabledByAnotherCaseOfItsId() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = getContainer("uk.co.drnaylor.quickstart.tests.modules.disableable", true);
+        holder.loadModules(true);
+
+        holder.disableModule("Dis");
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.drnaylor.quickstart.Module;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.DiscoveryScope;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.JarIndexStrategy;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.Strategy;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazytest.EagerModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazytest.LazyModule;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class JarIndexStrategyTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThatTheSameClassesAreFoundAsTheDefaultStrategy() throws Exception {
+        DiscoveryScope scope = DiscoveryScope.builder()
+                .addPackage("uk.co.drnaylor.quickstart.tests.modules.lazytest")
+                .addPackage("com.google.common.base")
+                .build();
+        Set<Class<?>> expected = Strategy.DEFAULT.discover(scope, getClass().getClassLoader());
+
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, new JarIndexStrategy().discover(scope, getClass().getClassLoader()));
+    }
+
+    @Test
+    public void testThatAJarWithMoreThan65535EntriesIsIndexed() throws Exception {
+        // More entries than a plain ZIP end of central directory record can count, so a ZIP64 record is written.
+        Path jar = folder.getRoot().toPath().resolve("large.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            for (int i = 0; i < 70000; i++) {
+                zip.putNextEntry(new ZipEntry("filler/" + i + ".txt"));
+                zip.closeEntry();
+            }
+
+            for (Class<?> c : new Class<?>[] { Module.class, TestModule.class, EagerModule.class, LazyModule.class }) {
+                copyClass(c, zip);
+            }
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { jar.toUri().toURL() }, null)) {
+            Set<Class<?>> classes = new JarIndexStrategy()
+                    .discover("uk.co.drnaylor.quickstart.tests.modules.lazytest", classLoader);
+
+            Assert.assertEquals(ImmutableSet.of(EagerModule.class.getName(), LazyModule.class.getName()),
+                    classes.stream().map(Class::getName).collect(Collectors.toSet()));
+            Assert.assertTrue(classes.stream().allMatch(x -> x.getClassLoader() == classLoader));
+        }
+    }
+
+    @Test
+    public void testThatAClassShadowedByAnotherCodeSourceIsNotFound() throws Exception {
+        Path first = folder.getRoot().toPath().resolve("first.jar");
+        Path second = folder.getRoot().toPath().resolve("second.jar");
+        for (Path jar : new Path[] { first, second }) {
+            try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+                for (Class<?> c : new Class<?>[] { Module.class, TestModule.class, EagerModule.class, LazyModule.class }) {
+                    copyClass(c, zip);
+                }
+            }
+        }
+
+        URL[] urls = { first.toUri().toURL(), second.toUri().toURL() };
+        try (URLClassLoader classLoader = new URLClassLoader(urls, null)) {
+            DiscoveryScope fromFirst = DiscoveryScope.builder()
+                    .addPackage("uk.co.drnaylor.quickstart.tests.modules.lazytest")
+                    .addCodeSource(first.toUri().toURL())
+                    .build();
+            Assert.assertEquals(2, new JarIndexStrategy().discover(fromFirst, classLoader).size());
+
+            // The second jar is scanned, but its classes are loaded from the first, which is not in scope.
+            DiscoveryScope fromSecond = DiscoveryScope.builder()
+                    .addPackage("uk.co.drnaylor.quickstart.tests.modules.lazytest")
+                    .addCodeSource(second.toUri().toURL())
+                    .build();
+            Assert.assertTrue(new JarIndexStrategy().discover(fromSecond, classLoader).isEmpty());
+        }
+    }
+
+    private static void copyClass(Class<?> c, ZipOutputStream zip) throws Exception {
+        String name = c.getName().replace('.', '/') + ".class";
+        zip.putNextEntry(new ZipEntry(name));
+        try (InputStream in = c.getClassLoader().getResourceAsStream(name)) {
+            ByteStreams.copy(in, zip);
+        }
+
+        zip.closeEntry();
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import org.junit.Assert;
+import org.junit.Test;
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.config.SimpleNodeConfigAdapter;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazyconcurrenttest.LazyFirstModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazyconcurrenttest.LazySecondModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazyenablingtest.EagerUserModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazyenablingtest.LazyHelperModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazyenablingtest.LazyUserModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazytest.LazyModule;
+import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public class LazyModuleTests extends FakeLoaderTests {
+
+    @Test
+    public void testThatALazyModuleIsOnlyActivatedOnFirstUse() throws Exception {
+        LazyModule.CONSTRUCTED.set(0);
+        ModuleHolder<TestModule, DisableableModule> container = getContainer("uk.co.drnaylor.quickstart.tests.modules.lazytest");
+        container.loadModules(true);
+
+        Assert.assertTrue(container.isModuleLoaded("eager"));
+        Assert.assertFalse(container.isModuleLoaded("lazy"));
+        Assert.assertEquals(0, LazyModule.CONSTRUCTED.get());
+
+        Assert.assertTrue(container.getModule("lazy").isPresent());
+        Assert.assertTrue(container.isModuleLoaded("lazy"));
+        Assert.assertEquals(1, LazyModule.CONSTRUCTED.get());
+    }
+
+    @Test
+    public void testThatConcurrentFirstUseActivatesOnce() throws Exception {
+        LazyModule.CONSTRUCTED.set(0);
+        ModuleHolder<TestModule, DisableableModule> container = getContainer("uk.co.drnaylor.quickstart.tests.modules.lazytest");
+        container.loadModules(true);
+
+        List<CompletableFuture<TestModule>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(CompletableFuture.supplyAsync(() -> container.<TestModule>getModule("lazy").get()));
+        }
+
+        TestModule first = futures.get(0).join();
+        futures.forEach(x -> Assert.assertSame(first, x.join()));
+        Assert.assertEquals(1, LazyModule.CONSTRUCTED.get());
+    }
+
+    @Test
+    public void testThatTwoLazyModulesCanActivateAtTheSameTime() throws Exception {
+        LazyFirstModule.CONSTRUCTED.set(0);
+        LazySecondModule.CONSTRUCTED.set(0);
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.lazyconcurrenttest", true);
+        container.loadModules(true);
+
+        List<CompletableFuture<TestModule>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            String id = i % 2 == 0 ? "lazyfirst" : "lazysecond";
+            futures.add(CompletableFuture.supplyAsync(() -> container.<TestModule>getModule(id).get()));
+        }
+
+        futures.forEach(CompletableFuture::join);
+        Assert.assertEquals(1, LazyFirstModule.CONSTRUCTED.get());
+        Assert.assertEquals(1, LazySecondModule.CONSTRUCTED.get());
+        Assert.assertNotNull(container.getConfigAdapterForModule("lazyfirst", SimpleNodeConfigAdapter.class));
+        Assert.assertNotNull(container.getConfigAdapterForModule("lazysecond", SimpleNodeConfigAdapter.class));
+
+        // Both must have made it into the list of modules that can be disabled.
+        container.disableModule("lazyfirst");
+        container.disableModule("lazysecond");
+        Assert.assertFalse(container.isModuleLoaded("lazyfirst"));
+        Assert.assertFalse(container.isModuleLoaded("lazysecond"));
+    }
+
+    @Test
+    public void testThatALazyModuleUsedWhileEnablingIsActivatedIfItsDependenciesAreEnabled() throws Exception {
+        LazyHelperModule.CONSTRUCTED.set(0);
+        ModuleHolder<TestModule, DisableableModule> container = getContainer("uk.co.drnaylor.quickstart.tests.modules.lazyenablingtest");
+        EagerUserModule.HOLDER = container;
+        container.loadModules(true);
+
+        // The helper has no dependencies, so the eager module gets it during its enable phase.
+        Assert.assertTrue(EagerUserModule.HELPER_AVAILABLE);
+        Assert.assertTrue(container.isModuleLoaded("lazyhelper"));
+        Assert.assertEquals(1, LazyHelperModule.CONSTRUCTED.get());
+
+        // The dependent needs the eager module, which was still enabling, so it is only available once loading is done.
+        Assert.assertFalse(EagerUserModule.DEPENDENT_AVAILABLE);
+        Assert.assertFalse(container.isModuleLoaded("lazydependent"));
+        Assert.assertTrue(container.getModule("lazydependent").isPresent());
+        Assert.assertEquals(1, LazyHelperModule.CONSTRUCTED.get());
+    }
+
+    @Test(timeout = 10000)
+    public void testThatALazyModuleCanUseAnotherFromAnotherThreadWhileActivating() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> container = getContainer("uk.co.drnaylor.quickstart.tests.modules.lazyenablingtest");
+        EagerUserModule.HOLDER = container;
+        container.loadModules(true);
+
+        Assert.assertTrue(container.getModule("lazyuser").isPresent());
+        Assert.assertTrue(LazyUserModule.HELPER_AVAILABLE);
+    }
+}
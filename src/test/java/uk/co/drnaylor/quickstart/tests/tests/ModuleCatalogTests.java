@@ -0,0 +1,90 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.holders.ModuleCatalog;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.DiscoveryScope;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.ModuleLayerStrategy;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.Strategy;
+import uk.co.drnaylor.quickstart.loaders.ModuleEnablerBuilder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ModuleCatalogTests extends FakeLoaderTests {
+
+    @Test
+    public void testThatOneScanFeedsHoldersOfDifferentTypes() throws Exception {
+        AtomicInteger scans = new AtomicInteger();
+        Strategy counting = (p, cl) -> {
+            scans.incrementAndGet();
+            return Strategy.DEFAULT.discover(p, cl);
+        };
+
+        ModuleCatalog catalog = ModuleCatalog.scan("uk.co.drnaylor.quickstart.tests.modules.disableable", getClass().getClassLoader(), counting);
+
+        ModuleHolder<TestModule, DisableableModule> all = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setModuleCatalog(catalog)
+                .build(true);
+
+        ModuleHolder<DisableableModule, DisableableModule> disableableOnly = DiscoveryModuleHolder
+                .builder(DisableableModule.class, DisableableModule.class)
+                .setModuleEnabler(new ModuleEnablerBuilder<>(DisableableModule.class, DisableableModule.class).build())
+                .setConfigurationLoader(loader)
+                .setModuleCatalog(catalog)
+                .build(true);
+
+        Assert.assertEquals(1, scans.get());
+        Assert.assertEquals(ImmutableSet.of("dis", "disdis", "notdis", "disnotdis"), all.getModules(ModuleHolder.ModuleStatusTristate.ALL));
+        Assert.assertEquals(ImmutableSet.of("dis", "disdis"), disableableOnly.getModules(ModuleHolder.ModuleStatusTristate.ALL));
+    }
+
+    @Test
+    public void testThatSeveralRootsAreScannedTogetherWithExclusions() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setDiscoveryScope(DiscoveryScope.builder()
+                        .addPackage("uk.co.drnaylor.quickstart.tests.modules.lazytest")
+                        .addPackage("uk.co.drnaylor.quickstart.tests.modules.criticalpathtest")
+                        .addExclusion("uk.co.drnaylor.quickstart.tests.modules.criticalpathtest.LeafModule")
+                        .addCodeSourceOf(TestModule.class)
+                        .build())
+                .build(true);
+
+        Assert.assertEquals(ImmutableSet.of("eager", "lazy", "head", "tail"), holder.getModules(ModuleHolder.ModuleStatusTristate.ALL));
+    }
+
+    @Test
+    public void testThatClassesFromOtherCodeSourcesAreNotScanned() throws Exception {
+        ModuleCatalog catalog = ModuleCatalog.scan(DiscoveryScope.builder()
+                .addPackage("uk.co.drnaylor.quickstart.tests.modules.lazytest")
+                .addCodeSourceOf(ImmutableSet.class)
+                .build(), getClass().getClassLoader(), Strategy.DEFAULT);
+
+        Assert.assertTrue(catalog.getClasses().isEmpty());
+    }
+
+    @Test
+    public void testThatTheModuleLayerStrategyFindsClassesOnTheClassPath() throws Exception {
+        DiscoveryScope scope = DiscoveryScope.of("uk.co.drnaylor.quickstart.tests.modules.lazytest");
+        ModuleCatalog layer = ModuleCatalog.scan(scope, getClass().getClassLoader(), new ModuleLayerStrategy());
+        ModuleCatalog classPath = ModuleCatalog.scan(scope, getClass().getClassLoader(), Strategy.DEFAULT);
+
+        Assert.assertFalse(layer.getClasses().isEmpty());
+        Assert.assertEquals(ImmutableSet.copyOf(classPath.getClasses()), ImmutableSet.copyOf(layer.getClasses()));
+    }
+}
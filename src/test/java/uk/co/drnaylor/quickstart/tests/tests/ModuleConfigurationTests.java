@@ -13,6 +13,7 @@ import uk.co.drnaylor.quickstart.ModuleHolder;
 import uk.co.drnaylor.quickstart.tests.config.adapters.SimpleWithDefault;
 import uk.co.drnaylor.quickstart.tests.config.adapters.SimpleWithDefaultAndManualTransform;
 import uk.co.drnaylor.quickstart.tests.config.adapters.SimpleWithDefaultAndTransform;
+import uk.co.drnaylor.quickstart.tests.config.adapters.SimpleWithDefaultAndVersionedTransform;
 import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
 import uk.co.drnaylor.quickstart.tests.modules.TestModule;
 import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
@@ -74,4 +75,32 @@ public class ModuleConfigurationTests extends FakeLoaderTests {
         Assert.assertEquals("test2", s2.getNode().getNode("test2").getString());
         Assert.assertEquals("transformed", s2.getNode().getNode("test").getString());
     }
+
+    @Test
+    public void testThatAVersionedTransformationRunsAndRecordsTheVersion() throws Exception {
+        // When we load these modules...
+        ModuleHolder<TestModule, DisableableModule> mc = getContainer("uk.co.drnaylor.quickstart.tests.modules.adaptersversionedtransformtest");
+        mc.loadModules(true);
+
+        SimpleWithDefaultAndVersionedTransform s2 = mc.getConfigAdapterForModule("moduleone", SimpleWithDefaultAndVersionedTransform.class);
+
+        Assert.assertTrue(s2.getNode().getNode("test2").isVirtual());
+        Assert.assertEquals("test2", s2.getNode().getNode("testmove").getString());
+        Assert.assertEquals(1, n.getNode("moduleone", "config-version").getInt());
+    }
+
+    @Test
+    public void testThatAVersionedTransformationIsSkippedIfAlreadyApplied() throws Exception {
+        n.getNode("moduleone", "config-version").setValue(1);
+        n.getNode("moduleone", "test2").setValue("kept");
+
+        // When we load these modules...
+        ModuleHolder<TestModule, DisableableModule> mc = getContainer("uk.co.drnaylor.quickstart.tests.modules.adaptersversionedtransformtest");
+        mc.loadModules(true);
+
+        SimpleWithDefaultAndVersionedTransform s2 = mc.getConfigAdapterForModule("moduleone", SimpleWithDefaultAndVersionedTransform.class);
+
+        Assert.assertEquals("kept", s2.getNode().getNode("test2").getString());
+        Assert.assertTrue(s2.getNode().getNode("testmove").isVirtual());
+    }
 }
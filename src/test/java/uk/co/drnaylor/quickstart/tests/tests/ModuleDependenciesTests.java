@@ -7,11 +7,32 @@ package uk.co.drnaylor.quickstart.tests.tests;
 import org.junit.Assert;
 import org.junit.Test;
 import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
 import uk.co.drnaylor.quickstart.exceptions.NoModuleException;
 import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleDiscoveryException;
 import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleLoaderException;
 import uk.co.drnaylor.quickstart.exceptions.UndisableableModuleException;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.DiscoveryScope;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.Strategy;
+import uk.co.drnaylor.quickstart.loaders.ModuleEnablerBuilder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
 import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+import uk.co.drnaylor.quickstart.util.PhaseExecutors;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 public class ModuleDependenciesTests extends FakeLoaderTests {
 
@@ -80,4 +101,140 @@ public class ModuleDependenciesTests extends FakeLoaderTests {
     public void testIncorrectModuleDependencyCausesFailureToLoad() throws QuickStartModuleDiscoveryException {
         getContainer("uk.co.drnaylor.quickstart.tests.modules.missingdeptest");
     }
+
+    @Test
+    public void testDependenciesFinishEachPhaseFirstWhenRunOnAnExecutor() throws Exception {
+        List<String> enabled = new CopyOnWriteArrayList<>();
+        ExecutorService executor = PhaseExecutors.virtualThreadsIfAvailable();
+        try {
+            ModuleHolder<TestModule, DisableableModule> mc = DiscoveryModuleHolder
+                    .builder(TestModule.class, DisableableModule.class)
+                    .setModuleEnabler(new ModuleEnablerBuilder<>(TestModule.class, DisableableModule.class)
+                            .createEnablePhase("enable", (module, holder) -> {
+                                Thread.sleep(10);
+                                enabled.add(module.getClass().getAnnotation(ModuleData.class).id());
+                            })
+                            .build())
+                    .setConfigurationLoader(loader)
+                    .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.dependenciestest")
+                    .setPhaseExecutor(executor)
+                    .build(true);
+            mc.loadModules(true);
+
+            Assert.assertEquals(3, mc.getModules(ModuleHolder.ModuleStatusTristate.ENABLE).size());
+            Assert.assertEquals(3, enabled.size());
+            Assert.assertTrue(enabled.indexOf("moduleone") < enabled.indexOf("moduletwo"));
+            Assert.assertTrue(enabled.indexOf("moduletwo") < enabled.indexOf("modulethree"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testModulesOnTheCriticalPathStartFirst() throws Exception {
+        List<String> enabled = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            ModuleHolder<TestModule, DisableableModule> mc = DiscoveryModuleHolder
+                    .builder(TestModule.class, DisableableModule.class)
+                    .setModuleEnabler(new ModuleEnablerBuilder<>(TestModule.class, DisableableModule.class)
+                            .createEnablePhase("enable", (module, holder) -> enabled.add(module.getClass().getAnnotation(ModuleData.class).id()))
+                            .build())
+                    .setConfigurationLoader(loader)
+                    .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.criticalpathtest")
+                    .setPhaseExecutor(executor)
+                    .build(true);
+            mc.loadModules(true);
+
+            // The head of the expensive chain goes before the cheap module that does not depend on anything.
+            Assert.assertEquals(3, enabled.size());
+            Assert.assertTrue(enabled.indexOf("head") < enabled.indexOf("leaf"));
+            Assert.assertTrue(mc.getEnableTimings().containsKey("tail"));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void testAFailureInterruptsPhasesThatAreStillRunning() throws Exception {
+        List<String> enabled = new CopyOnWriteArrayList<>();
+        CountDownLatch headStarted = new CountDownLatch(1);
+        AtomicBoolean headInterrupted = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            ModuleHolder<TestModule, DisableableModule> mc = DiscoveryModuleHolder
+                    .builder(TestModule.class, DisableableModule.class)
+                    .setModuleEnabler(new ModuleEnablerBuilder<>(TestModule.class, DisableableModule.class)
+                            .createEnablePhase("enable", (module, holder) -> {
+                                String id = module.getClass().getAnnotation(ModuleData.class).id();
+                                if (id.equals("head")) {
+                                    headStarted.countDown();
+                                    try {
+                                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                                    } catch (InterruptedException e) {
+                                        headInterrupted.set(true);
+                                        throw e;
+                                    }
+                                } else if (id.equals("leaf")) {
+                                    headStarted.await();
+                                    throw new IllegalStateException("The leaf fails.");
+                                }
+
+                                enabled.add(id);
+                            })
+                            .build())
+                    .setConfigurationLoader(loader)
+                    .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.criticalpathtest")
+                    .setPhaseExecutor(executor)
+                    .build(true);
+
+            try {
+                mc.loadModules(true);
+                Assert.fail("The leaf should have failed the load.");
+            } catch (QuickStartModuleLoaderException.Enabling e) {
+                // expected
+            }
+
+            // The head was stopped rather than waited out, and the tail never started.
+            Assert.assertTrue(headInterrupted.get());
+            Assert.assertTrue(enabled.isEmpty());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testModulesFoundInAnyOrderAreLoadedInDependencyOrder() throws Exception {
+        String p = "uk.co.drnaylor.quickstart.tests.modules.dependenciestest";
+        List<Class<?>> classes = new ArrayList<>(Strategy.DEFAULT.discover(p, getClass().getClassLoader()));
+        classes.sort(Comparator.comparing(Class::getName, Comparator.reverseOrder()));
+
+        // Dependents are found before their dependencies, and every class is found twice.
+        Strategy reversed = new Strategy() {
+            @Override
+            public Set<Class<?>> discover(String topPackage, ClassLoader classLoader) {
+                return new HashSet<>(classes);
+            }
+
+            @Override
+            public void discover(DiscoveryScope scope, ClassLoader classLoader, Consumer<Class<?>> consumer) {
+                classes.forEach(consumer);
+                classes.forEach(consumer);
+            }
+        };
+
+        ModuleHolder<TestModule, DisableableModule> streamed = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan(p)
+                .setStrategy(reversed)
+                .build(true);
+        streamed.loadModules(true);
+
+        ModuleHolder<TestModule, DisableableModule> mc = getContainer(p);
+        mc.loadModules(true);
+        Assert.assertEquals(new ArrayList<>(mc.getBootPlan().getModules().keySet()),
+                new ArrayList<>(streamed.getBootPlan().getModules().keySet()));
+    }
 }
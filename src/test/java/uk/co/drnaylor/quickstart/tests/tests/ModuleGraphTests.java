@@ -0,0 +1,47 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.co.drnaylor.quickstart.ModuleGraph;
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+
+import java.time.Duration;
+
+public class ModuleGraphTests extends FakeLoaderTests {
+
+    @Test
+    public void testThatTheCriticalPathFollowsTheMostExpensiveChain() throws Exception {
+        ModuleGraph graph = getContainer("uk.co.drnaylor.quickstart.tests.modules.criticalpathtest").getModuleGraph();
+
+        Assert.assertEquals(ImmutableList.of("head", "tail"), graph.getCriticalPath());
+        Assert.assertEquals(Duration.ofMillis(1001), graph.getCriticalPathCost());
+        Assert.assertEquals(Duration.ofMillis(1002), graph.getTotalCost());
+        Assert.assertEquals(1002.0 / 1001.0, graph.getMaximumSpeedup(), 0.0001);
+    }
+
+    @Test
+    public void testThatTheGraphIsWrittenWithMeasuredTimes() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = getContainer("uk.co.drnaylor.quickstart.tests.modules.dependenciestest");
+        holder.loadModules(true);
+        ModuleGraph graph = holder.getModuleGraph();
+        Assert.assertEquals(ImmutableList.of("moduleone", "moduletwo", "modulethree"), graph.getCriticalPath());
+        Assert.assertTrue(graph.getNodes().get("moduletwo").getConstructionTime().isPresent());
+        Assert.assertTrue(graph.getNodes().get("moduletwo").getEnableTime().isPresent());
+
+        StringBuilder dot = new StringBuilder();
+        graph.writeDot(dot);
+        Assert.assertTrue(dot.toString().contains("\"moduleone\" -> \"moduletwo\" [color=red];"));
+
+        StringBuilder json = new StringBuilder();
+        graph.writeJson(json);
+        Assert.assertTrue(json.toString().contains("\"criticalPath\":[\"moduleone\",\"moduletwo\",\"modulethree\"]"));
+    }
+}
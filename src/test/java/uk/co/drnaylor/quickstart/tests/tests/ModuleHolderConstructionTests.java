@@ -10,17 +10,26 @@ import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import uk.co.drnaylor.quickstart.LoggerProxy;
 import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.annotations.ModuleData;
 import uk.co.drnaylor.quickstart.config.ModulesConfigAdapter;
 import uk.co.drnaylor.quickstart.config.SimpleNodeConfigAdapter;
+import uk.co.drnaylor.quickstart.enums.WatchdogPolicy;
 import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleDiscoveryException;
 import uk.co.drnaylor.quickstart.exceptions.QuickStartModuleLoaderException;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.loaders.ModuleEnablerBuilder;
 import uk.co.drnaylor.quickstart.tests.config.adapters.SimpleWithDefault;
 import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
 import uk.co.drnaylor.quickstart.tests.modules.TestModule;
 import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 
 public class ModuleHolderConstructionTests extends FakeLoaderTests {
 
@@ -101,4 +110,78 @@ public class ModuleHolderConstructionTests extends FakeLoaderTests {
         Assert.assertTrue(ss.contains("prepass"));
         Assert.assertFalse(ss.contains("prefail"));
     }
+
+    @Test
+    public void testThatAModulePastItsDeadlineIsErroredAndLoadingContinues() throws Exception {
+        ModuleHolder<TestModule, DisableableModule> holder = getHangingContainer(WatchdogPolicy.ERROR_MODULE);
+        holder.loadModules(false);
+
+        Assert.assertFalse(holder.isModuleLoaded("moduleone"));
+        Assert.assertTrue(holder.isModuleLoaded("moduletwo"));
+    }
+
+    @Test
+    public void testThatAModulePastItsDeadlineAbortsLoadingIfRequested() throws Exception {
+        try {
+            getHangingContainer(WatchdogPolicy.ABORT).loadModules(false);
+            Assert.fail("Loading should have been aborted.");
+        } catch (QuickStartModuleLoaderException.Enabling e) {
+            Assert.assertTrue(e.getCause() instanceof QuickStartModuleLoaderException.Timeout);
+        }
+    }
+
+    @Test
+    public void testThatAModulePastItsDeadlineIsWaitedForOnTheLoadingThread() throws Exception {
+        List<Thread> threads = new CopyOnWriteArrayList<>();
+        List<String> warnings = new CopyOnWriteArrayList<>();
+        ModuleHolder<TestModule, DisableableModule> holder = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(new ModuleEnablerBuilder<>(TestModule.class, DisableableModule.class)
+                        .createEnablePhase("enable", (module, h) -> {
+                            if (module.getClass().getAnnotation(ModuleData.class).id().equals("moduleone")) {
+                                threads.add(Thread.currentThread());
+                                Thread.sleep(500);
+                            }
+                        })
+                        .setModuleDeadline("moduleone", Duration.ofMillis(100))
+                        .setWatchdogPolicy(WatchdogPolicy.KEEP_WAITING)
+                        .build())
+                .setConfigurationLoader(loader)
+                .setLoggerProxy(new LoggerProxy() {
+                    @Override public void info(String message) {}
+
+                    @Override public void warn(String message) {
+                        warnings.add(message);
+                    }
+
+                    @Override public void error(String message) {}
+                })
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.softdepstest")
+                .build(true);
+        holder.loadModules(false);
+
+        Assert.assertTrue(holder.isModuleLoaded("moduleone"));
+        Assert.assertEquals(1, threads.size());
+        Assert.assertSame(Thread.currentThread(), threads.get(0));
+        Assert.assertTrue(warnings.stream().anyMatch(x -> x.contains("Module moduleone in phase enable")
+                && x.contains(Thread.currentThread().getName())));
+    }
+
+    private ModuleHolder<TestModule, DisableableModule> getHangingContainer(WatchdogPolicy policy) throws Exception {
+        CountDownLatch never = new CountDownLatch(1);
+        return DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(new ModuleEnablerBuilder<>(TestModule.class, DisableableModule.class)
+                        .createEnablePhase("enable", (module, holder) -> {
+                            if (module.getClass().getAnnotation(ModuleData.class).id().equals("moduleone")) {
+                                never.await();
+                            }
+                        })
+                        .setModuleDeadline("moduleone", Duration.ofMillis(100))
+                        .setWatchdogPolicy(policy)
+                        .build())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.softdepstest")
+                .build(true);
+    }
 }
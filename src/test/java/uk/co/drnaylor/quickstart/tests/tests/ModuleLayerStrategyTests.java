@@ -0,0 +1,97 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.DiscoveryScope;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.ModuleLayerStrategy;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.Strategy;
+import uk.co.drnaylor.quickstart.tests.modules.lazytest.EagerModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazytest.LazyModule;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class ModuleLayerStrategyTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThatClassesInANamedModuleAreFoundWithoutTheFallback() throws Exception {
+        Assume.assumeTrue("Named modules need Java 9 or later.", isModuleApiPresent());
+
+        // Only one of the two classes in the package goes in the module, the other stays on the classpath.
+        Path jar = folder.getRoot().toPath().resolve("layertest.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(jar))) {
+            String name = EagerModule.class.getName().replace('.', '/') + ".class";
+            zip.putNextEntry(new ZipEntry(name));
+            try (InputStream in = EagerModule.class.getClassLoader().getResourceAsStream(name)) {
+                ByteStreams.copy(in, zip);
+            }
+
+            zip.closeEntry();
+        }
+
+        ClassLoader moduleLoader = defineLayer(jar, "layertest", getClass().getClassLoader());
+        AtomicBoolean fallbackUsed = new AtomicBoolean();
+        Strategy fallback = (topPackage, classLoader) -> {
+            fallbackUsed.set(true);
+            return Strategy.DEFAULT.discover(topPackage, classLoader);
+        };
+
+        Set<Class<?>> classes = new ModuleLayerStrategy(fallback, moduleLoader.loadClass(EagerModule.class.getName()))
+                .discover(DiscoveryScope.of("uk.co.drnaylor.quickstart.tests.modules.lazytest"), getClass().getClassLoader());
+
+        Assert.assertEquals(1, classes.size());
+        Class<?> found = classes.iterator().next();
+        Assert.assertEquals(EagerModule.class.getName(), found.getName());
+        Assert.assertSame(moduleLoader, found.getClassLoader());
+
+        // The named module matched, so the classpath is not scanned, and the class that is only there is missed.
+        Assert.assertFalse(fallbackUsed.get());
+        Assert.assertFalse(classes.stream().anyMatch(x -> x.getName().equals(LazyModule.class.getName())));
+    }
+
+    private static boolean isModuleApiPresent() {
+        try {
+            Class.forName("java.lang.ModuleLayer");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves the modular jar in a new layer over the boot layer, and gets the class loader of its module. The
+     * module API is used reflectively, as the tests are built for Java 8.
+     */
+    private static ClassLoader defineLayer(Path jar, String moduleName, ClassLoader parent) throws Exception {
+        Class<?> finderClass = Class.forName("java.lang.module.ModuleFinder");
+        Class<?> configurationClass = Class.forName("java.lang.module.Configuration");
+        Class<?> layerClass = Class.forName("java.lang.ModuleLayer");
+
+        Object finder = finderClass.getMethod("of", Path[].class).invoke(null, (Object) new Path[] { jar });
+        Object noModules = finderClass.getMethod("of", Path[].class).invoke(null, (Object) new Path[0]);
+        Object boot = layerClass.getMethod("boot").invoke(null);
+        Object configuration = configurationClass.getMethod("resolve", finderClass, finderClass, Collection.class)
+                .invoke(layerClass.getMethod("configuration").invoke(boot), finder, noModules, Collections.singleton(moduleName));
+        Object layer = layerClass.getMethod("defineModulesWithOneLoader", configurationClass, ClassLoader.class)
+                .invoke(boot, configuration, parent);
+        return (ClassLoader) layerClass.getMethod("findLoader", String.class).invoke(layer, moduleName);
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+import uk.co.drnaylor.quickstart.LoggerProxy;
+import uk.co.drnaylor.quickstart.ModuleHolder;
+import uk.co.drnaylor.quickstart.ModuleMetadata;
+import uk.co.drnaylor.quickstart.enums.ModulePhase;
+import uk.co.drnaylor.quickstart.events.AsyncModuleLifecycleListener;
+import uk.co.drnaylor.quickstart.events.ModuleLifecycleListener;
+import uk.co.drnaylor.quickstart.holders.DiscoveryModuleHolder;
+import uk.co.drnaylor.quickstart.tests.modules.DisableableModule;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.scaffolding.FakeLoaderTests;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class ModuleLifecycleListenerTests extends FakeLoaderTests {
+
+    @Test
+    public void testThatEventsArePublishedInLifecycleOrder() throws Exception {
+        RecordingListener listener = new RecordingListener("dis");
+        ModuleHolder<TestModule, DisableableModule> container = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.disableable")
+                .setAllowDisable(true)
+                .addLifecycleListener(listener)
+                .build(true);
+
+        container.loadModules(true);
+        container.disableModule("dis");
+
+        Assert.assertEquals(Lists.newArrayList(
+                "discovered",
+                "constructed",
+                "phase preenable",
+                "phase enable",
+                "phase postenable",
+                "enabled",
+                "disabled"), listener.events);
+    }
+
+    @Test
+    public void testThatARemovedListenerIsNotCalled() throws Exception {
+        RecordingListener listener = new RecordingListener("dis");
+        ModuleHolder<TestModule, DisableableModule> container =
+                getContainer("uk.co.drnaylor.quickstart.tests.modules.disableable", true);
+        container.addLifecycleListener(listener);
+        Assert.assertTrue(container.removeLifecycleListener(listener));
+
+        container.loadModules(true);
+        Assert.assertTrue(listener.events.isEmpty());
+    }
+
+    @Test
+    public void testThatAnAsyncListenerSeesTheModuleAsItWasWhenTheEventHappened() throws Exception {
+        List<ModulePhase> phases = new CopyOnWriteArrayList<>();
+        AsyncModuleLifecycleListener listener = new AsyncModuleLifecycleListener(new ModuleLifecycleListener() {
+            @Override public void onConstructed(ModuleMetadata<?> module) {
+                if (!module.getId().equals("dis")) {
+                    return;
+                }
+
+                try {
+                    // Slow enough that the module is enabled before the event is delivered.
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+
+                phases.add(module.getPhase());
+            }
+
+            @Override public void onEnabled(ModuleMetadata<?> module) {
+                if (module.getId().equals("dis")) {
+                    phases.add(module.getPhase());
+                }
+            }
+        });
+
+        ModuleHolder<TestModule, DisableableModule> container = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.disableable")
+                .addLifecycleListener(listener)
+                .build(true);
+
+        container.loadModules(true);
+        listener.close();
+
+        Assert.assertEquals(Lists.newArrayList(ModulePhase.CONSTRUCTED, ModulePhase.ENABLED), phases);
+    }
+
+    @Test
+    public void testThatAFailingAsyncListenerDoesNotStopLaterEvents() throws Exception {
+        List<String> errors = new CopyOnWriteArrayList<>();
+        RecordingListener recorder = new RecordingListener("dis");
+        AsyncModuleLifecycleListener listener = new AsyncModuleLifecycleListener(new ModuleLifecycleListener() {
+            @Override public void onConstructed(ModuleMetadata<?> module) {
+                if (module.getId().equals("dis")) {
+                    throw new IllegalStateException("broken");
+                }
+            }
+
+            @Override public void onEnabled(ModuleMetadata<?> module) {
+                recorder.onEnabled(module);
+            }
+        }, 16, new ErrorRecorder(errors));
+
+        ModuleHolder<TestModule, DisableableModule> container = DiscoveryModuleHolder
+                .builder(TestModule.class, DisableableModule.class)
+                .setModuleEnabler(getEnabler())
+                .setConfigurationLoader(loader)
+                .setPackageToScan("uk.co.drnaylor.quickstart.tests.modules.disableable")
+                .addLifecycleListener(listener)
+                .build(true);
+
+        container.loadModules(true);
+        listener.close();
+
+        Assert.assertEquals(1, errors.size());
+        Assert.assertEquals(Lists.newArrayList("enabled"), recorder.events);
+    }
+
+    private static class ErrorRecorder implements LoggerProxy {
+
+        private final List<String> errors;
+
+        private ErrorRecorder(List<String> errors) {
+            this.errors = errors;
+        }
+
+        @Override public void info(String message) {}
+
+        @Override public void warn(String message) {}
+
+        @Override public void error(String message) {
+            this.errors.add(message);
+        }
+    }
+
+    private static class RecordingListener implements ModuleLifecycleListener {
+
+        private final String id;
+        private final List<String> events = new CopyOnWriteArrayList<>();
+
+        private RecordingListener(String id) {
+            this.id = id;
+        }
+
+        @Override public void onDiscovered(ModuleMetadata<?> module) {
+            record(module, "discovered");
+        }
+
+        @Override public void onConstructed(ModuleMetadata<?> module) {
+            record(module, "constructed");
+        }
+
+        @Override public void onPhaseEntered(ModuleMetadata<?> module, String phase) {
+            record(module, "phase " + phase);
+        }
+
+        @Override public void onEnabled(ModuleMetadata<?> module) {
+            record(module, "enabled");
+        }
+
+        @Override public void onDisabled(ModuleMetadata<?> module) {
+            record(module, "disabled");
+        }
+
+        @Override public void onErrored(ModuleMetadata<?> module, Throwable cause) {
+            record(module, "errored");
+        }
+
+        private void record(ModuleMetadata<?> module, String event) {
+            if (module.getId().equals(this.id)) {
+                this.events.add(event);
+            }
+        }
+    }
+}
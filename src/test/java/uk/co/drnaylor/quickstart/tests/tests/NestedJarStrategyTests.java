@@ -0,0 +1,124 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.drnaylor.quickstart.Module;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.JarIndexStrategy;
+import uk.co.drnaylor.quickstart.holders.discoverystrategies.NestedJarStrategy;
+import uk.co.drnaylor.quickstart.tests.modules.TestModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazytest.EagerModule;
+import uk.co.drnaylor.quickstart.tests.modules.lazytest.LazyModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class NestedJarStrategyTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThatModulesAreFoundInNestedJarsWithoutExtractingThem() throws Exception {
+        // The modules are in a stored jar, and the interfaces they implement in a compressed one.
+        Path fatJar = folder.getRoot().toPath().resolve("app.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(fatJar))) {
+            addEntry(zip, "lib/api.jar", createJar(Module.class, TestModule.class), false);
+            addEntry(zip, "lib/modules.jar", createJar(EagerModule.class, LazyModule.class), true);
+        }
+
+        for (boolean memoryMapped : new boolean[] { true, false }) {
+            try (URLClassLoader classLoader = new URLClassLoader(new URL[] { fatJar.toUri().toURL() }, null)) {
+                Set<Class<?>> classes = new NestedJarStrategy(new JarIndexStrategy(), memoryMapped, "lib")
+                        .discover("uk.co.drnaylor.quickstart.tests.modules.lazytest", classLoader);
+
+                Assert.assertEquals(ImmutableSet.of(EagerModule.class.getName(), LazyModule.class.getName()),
+                        classes.stream().map(Class::getName).collect(Collectors.toSet()));
+
+                Class<?> eager = classes.stream().filter(x -> x.getName().equals(EagerModule.class.getName())).findFirst().get();
+                Assert.assertNotSame(classLoader, eager.getClassLoader());
+                Assert.assertEquals(TestModule.class.getName(), eager.getInterfaces()[0].getName());
+
+                URL resource = eager.getClassLoader().getResource(toResourceName(EagerModule.class));
+                Assert.assertTrue(resource.toExternalForm().endsWith("app.jar!/lib/modules.jar!/" + toResourceName(EagerModule.class)));
+                try (InputStream in = resource.openStream()) {
+                    Assert.assertArrayEquals(readClass(EagerModule.class), ByteStreams.toByteArray(in));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testThatClosingReleasesTheJarsAndDiscoveringAgainReopensThem() throws Exception {
+        Path fatJar = folder.getRoot().toPath().resolve("app.jar");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(fatJar))) {
+            addEntry(zip, "lib/modules.jar", createJar(Module.class, TestModule.class, EagerModule.class, LazyModule.class), true);
+        }
+
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[] { fatJar.toUri().toURL() }, null)) {
+            NestedJarStrategy strategy = new NestedJarStrategy(new JarIndexStrategy(), false, "lib");
+            Set<Class<?>> first = strategy.discover("uk.co.drnaylor.quickstart.tests.modules.lazytest", classLoader);
+            strategy.close();
+
+            // The classes that were found are still usable, but are not the ones found the second time around.
+            Set<Class<?>> second = strategy.discover("uk.co.drnaylor.quickstart.tests.modules.lazytest", classLoader);
+            strategy.close();
+            Assert.assertEquals(2, first.size());
+            Assert.assertEquals(first.stream().map(Class::getName).collect(Collectors.toSet()),
+                    second.stream().map(Class::getName).collect(Collectors.toSet()));
+            Assert.assertNotSame(first.iterator().next().getClassLoader(), second.iterator().next().getClassLoader());
+        }
+    }
+
+    private static byte[] createJar(Class<?>... classes) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Class<?> c : classes) {
+                addEntry(zip, toResourceName(c), readClass(c), false);
+            }
+        }
+
+        return out.toByteArray();
+    }
+
+    private static void addEntry(ZipOutputStream zip, String name, byte[] contents, boolean stored) throws Exception {
+        ZipEntry entry = new ZipEntry(name);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(contents);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(contents.length);
+            entry.setCrc(crc.getValue());
+        }
+
+        zip.putNextEntry(entry);
+        zip.write(contents);
+        zip.closeEntry();
+    }
+
+    private static byte[] readClass(Class<?> c) throws Exception {
+        try (InputStream in = c.getClassLoader().getResourceAsStream(toResourceName(c))) {
+            return ByteStreams.toByteArray(in);
+        }
+    }
+
+    private static String toResourceName(Class<?> c) {
+        return c.getName().replace('.', '/') + ".class";
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This file is part of QuickStart Module Loader, licensed under the MIT License (MIT). See the LICENSE.txt file
+ * at the root of this project for more details.
+ */
+package uk.co.drnaylor.quickstart.tests.tests;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import ninja.leaping.configurate.ConfigurationNode;
+import ninja.leaping.configurate.gson.GsonConfigurationLoader;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import uk.co.drnaylor.quickstart.config.SnapshotConfigurationLoader;
+
+import java.io.DataOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+
+public class SnapshotConfigurationLoaderTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testThatAnUnchangedFileIsLoadedFromTheSnapshot() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("config.json");
+        Files.write(file, "{\"a\":\"b\",\"n\":{\"c\":true,\"l\":[\"x\",\"y\"]}}".getBytes(UTF_8));
+        SnapshotConfigurationLoader<ConfigurationNode> loader = createLoader(file);
+
+        ConfigurationNode parsed = loader.load();
+        Assert.assertFalse(loader.wasLoadedFromSnapshot());
+        Assert.assertTrue(Files.exists(file.resolveSibling("config.json.snapshot")));
+
+        ConfigurationNode snapshot = loader.load();
+        Assert.assertTrue(loader.wasLoadedFromSnapshot());
+        Assert.assertEquals(parsed.getNode("a").getString(), snapshot.getNode("a").getString());
+        Assert.assertEquals(parsed.getNode("n", "c").getBoolean(false), snapshot.getNode("n", "c").getBoolean(false));
+        Assert.assertEquals(2, snapshot.getNode("n", "l").getChildrenList().size());
+        Assert.assertEquals("y", snapshot.getNode("n", "l").getChildrenList().get(1).getString());
+    }
+
+    @Test
+    public void testThatAChangedFileIsParsedAgain() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("config.json");
+        Files.write(file, "{\"a\":\"b\"}".getBytes(UTF_8));
+        SnapshotConfigurationLoader<ConfigurationNode> loader = createLoader(file);
+        loader.load();
+
+        Files.write(file, "{\"a\":\"c\"}".getBytes(UTF_8));
+        ConfigurationNode node = loader.load();
+        Assert.assertFalse(loader.wasLoadedFromSnapshot());
+        Assert.assertEquals("c", node.getNode("a").getString());
+
+        loader.load();
+        Assert.assertTrue(loader.wasLoadedFromSnapshot());
+    }
+
+    @Test
+    public void testThatASnapshotWithAnImpossibleLengthIsIgnored() throws Exception {
+        Path file = folder.getRoot().toPath().resolve("config.json");
+        Files.write(file, "{\"a\":\"b\"}".getBytes(UTF_8));
+        byte[] hash = MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file));
+        try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(file.resolveSibling("config.json.snapshot")))) {
+            out.writeInt(0x5153534E);
+            out.writeByte(1);
+            out.writeByte(hash.length);
+            out.write(hash);
+
+            // A comment that claims to be far longer than the file.
+            out.writeBoolean(true);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+
+        SnapshotConfigurationLoader<ConfigurationNode> loader = createLoader(file);
+        ConfigurationNode node = loader.load();
+        Assert.assertFalse(loader.wasLoadedFromSnapshot());
+        Assert.assertEquals("b", node.getNode("a").getString());
+    }
+
+    private SnapshotConfigurationLoader<ConfigurationNode> createLoader(Path file) {
+        return new SnapshotConfigurationLoader<>(GsonConfigurationLoader.builder().setPath(file).build(), file);
+    }
+}